@@ -0,0 +1,129 @@
+package com.example.library;
+
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookSortKey;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compares request handling of the MVC application on virtual and platform threads and, with the reactive
+ * profile enabled, of the WebFlux application. Each invocation fires a burst of concurrent HTTP requests at
+ * the running application and waits for all of them, so the score is the mean time per request at that
+ * concurrency. Needs the PostgreSQL database from application.properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LibraryLoadBenchmark {
+    private static final int BOOKS = 1000;
+    private static final int CONCURRENCY = 1000;
+
+    /**
+     * mvc-virtual, mvc-platform or reactive; the last one is only on the classpath with -Preactive.
+     */
+    @Param({"mvc-virtual", "mvc-platform"})
+    public String stack;
+
+    @Param({"book", "page"})
+    public String endpoint;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clients;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // command-line arguments, because default properties would lose to application.properties
+        String[] args = {
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + stack.equals("mvc-virtual"),
+                // measure throughput under queueing instead of failing fast on a saturated pool
+                "--spring.datasource.hikari.connection-timeout=60000",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.library=WARN"
+        };
+        context = stack.equals("reactive")
+                ? new SpringApplicationBuilder(Class.forName("com.example.library.reactive.ReactiveLibraryApplication"))
+                        .web(WebApplicationType.REACTIVE)
+                        .profiles("reactive")
+                        .run(args)
+                : new SpringApplicationBuilder(LibraryApplication.class).run(args);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/books/";
+
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder().executor(clients).build();
+
+        // seeded over HTTP, so it works the same way for every stack
+        String books = IntStream.range(0, BOOKS)
+                .mapToObj(i -> "{\"title\":\"Load test title " + i + "\",\"author\":\"Load test author\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(books))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        JsonNode page = new ObjectMapper().readTree(httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "?limit=" + BOOKS)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body());
+        ids = StreamSupport.stream(page.get("items").spliterator(), false)
+                .mapToLong(book -> book.get("id").asLong())
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        clients.close();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public int burst() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(nextUrl())).GET().build();
+            responses.add(clients.submit(() -> httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+        }
+        int ok = 0;
+        for (Future<Integer> response : responses) {
+            if (response.get() == 200) {
+                ok++;
+            }
+        }
+        if (ok != CONCURRENCY) {
+            throw new IllegalStateException((CONCURRENCY - ok) + " requests failed");
+        }
+        return ok;
+    }
+
+    private String nextUrl() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return endpoint.equals("book") ? baseUrl + id : baseUrl + "?limit=50&after=" + new BookCursor(BookSortKey.ID, id, null).encode();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.library.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.library.model.Book;
+import com.example.library.model.BookDTO;
+import com.example.library.repository.BookRepository;
+import com.example.library.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead the logging aspect adds to a service call, with the default sample rate and slow threshold. The
+ * repository is a stub, so the numbers show the proxy and the log formatting alone; log output goes through
+ * the real encoder into a null stream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookServiceLoggingAspectBenchmark {
+    @Param({"INFO", "DEBUG"})
+    public String level;
+
+    private BookService plainService;
+    private BookService proxiedService;
+
+    @Setup
+    public void setup() {
+        configureLogging(Level.toLevel(level));
+
+        Book book = new Book(1L, "War and Peace", "Leo Tolstoy", 0L);
+        BookRepository bookRepository = (BookRepository) Proxy.newProxyInstance(
+                BookRepository.class.getClassLoader(),
+                new Class<?>[]{BookRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(book);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        plainService = new BookService(bookRepository, event -> {});
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(plainService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new BookServiceLoggingAspect(new ServiceTraceRegistry(new LoggerProvider(), new SimpleMeterRegistry()),
+                new ServiceTracingProperties(0.01, Duration.ofMillis(500), 256)));
+        proxiedService = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public BookDTO direct() {
+        return plainService.getBookById(1L);
+    }
+
+    @Benchmark
+    public BookDTO proxied() {
+        return proxiedService.getBookById(1L);
+    }
+
+    private static void configureLogging(Level level) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} [%level] [%logger{36}] - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        context.getLogger("com.example.library").setLevel(level);
+    }
+}
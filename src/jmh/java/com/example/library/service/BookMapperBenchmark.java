@@ -0,0 +1,46 @@
+package com.example.library.service;
+
+import com.example.library.model.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting between the API records and the entity on every request. {@code toBook} cycles
+ * through all four inputs, so the pattern-matching switch sees the same mix of types as in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookMapperBenchmark {
+    private BookInput[] inputs;
+    private Book book;
+
+    @Setup
+    public void setup() {
+        inputs = new BookInput[]{
+                new BookDTO(1L, "War and Peace", "Leo Tolstoy", 3L),
+                new BookPostDTO("War and Peace", "Leo Tolstoy"),
+                new BookPutDTO("War and Peace", "Leo Tolstoy"),
+                new BookPatchDTO("War and Peace", null)
+        };
+        book = new Book(1L, "War and Peace", "Leo Tolstoy", 3L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public void toBook(Blackhole blackhole) {
+        for (BookInput input : inputs) {
+            blackhole.consume(BookMapper.toBook(input));
+        }
+    }
+
+    @Benchmark
+    public BookDTO toBookDTO() {
+        return BookDTO.from(book);
+    }
+}
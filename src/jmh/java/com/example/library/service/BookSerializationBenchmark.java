@@ -0,0 +1,51 @@
+package com.example.library.service;
+
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookDTO;
+import com.example.library.model.BookPageDTO;
+import com.example.library.model.BookSortKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Cost of writing response bodies with an ObjectMapper configured the way Spring MVC configures its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookSerializationBenchmark {
+    @Param({"1", "50", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookDTO> books;
+    private BookPageDTO page;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        books = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> new BookDTO(id, "Title " + id, "Author " + id, 0L))
+                .toList();
+        page = new BookPageDTO(books, BookCursor.after(books.getLast(), BookSortKey.ID).encode(), 1_000_000L);
+    }
+
+    @Benchmark
+    public byte[] writeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -1,9 +1,21 @@
 package com.example.library;
 
+import com.example.library.config.LibraryRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
-@SpringBootApplication
+// The R2DBC auto-configurations only apply when the reactive profile puts R2DBC on the classpath; they belong to
+// ReactiveLibraryApplication and would otherwise compete with JPA for the transaction manager.
+@SpringBootApplication(excludeName = {
+		"org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+		"org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration",
+		"org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+		"org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration"
+})
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(LibraryRuntimeHints.class)
 public class LibraryApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,24 @@
+package com.example.library.common;
+
+import com.example.library.model.BookDTO;
+
+/**
+ * CSV format of the catalog export: a header line, then one line per book with fields quoted only when needed.
+ */
+public final class BookCsv {
+    public static final String HEADER = "id,title,author,version\n";
+
+    private BookCsv() {
+    }
+
+    public static String row(BookDTO book) {
+        return book.id() + "," + escape(book.title()) + "," + escape(book.author()) + "," + book.version() + "\n";
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
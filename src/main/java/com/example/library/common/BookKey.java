@@ -0,0 +1,23 @@
+package com.example.library.common;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookPatchDTO;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Author and title of a book, the pair that is unique across the catalog ({@code uk_book_author_title}).
+ */
+public record BookKey(String author, String title) {
+    public static BookKey of(Book book) {
+        return new BookKey(book.getAuthor(), book.getTitle());
+    }
+
+    /**
+     * Key the book has once the patch is applied; blank fields of the patch leave the book's value unchanged.
+     */
+    public static BookKey of(Book book, BookPatchDTO patch) {
+        return new BookKey(
+                StringUtils.isNotBlank(patch.author()) ? patch.author() : book.getAuthor(),
+                StringUtils.isNotBlank(patch.title()) ? patch.title() : book.getTitle());
+    }
+}
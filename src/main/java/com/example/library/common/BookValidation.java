@@ -0,0 +1,62 @@
+package com.example.library.common;
+
+import com.example.library.exception.FieldErrorResponse;
+import com.example.library.model.BookInput;
+import com.example.library.model.BookPatchDTO;
+import com.example.library.model.BookPatchItemDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks of the books sent to the service layer that are not expressed as bean validation on a controller,
+ * such as the items of a batch, which are reported one by one instead of failing the request.
+ */
+public final class BookValidation {
+    private BookValidation() {
+    }
+
+    public static List<FieldErrorResponse> validate(Validator validator, BookInput book) {
+        if (book == null) {
+            return List.of(new FieldErrorResponse("", "Book must not be null!"));
+        }
+        Set<ConstraintViolation<BookInput>> violations = validator.validate(book);
+        return violations.stream()
+                .map(violation -> new FieldErrorResponse(
+                        violation.getPropertyPath().toString(),
+                        violation.getMessage()
+                ))
+                .toList();
+    }
+
+    /**
+     * Validates an item of a batch update and adds its ID to {@code ids}, so an ID that appears more than once
+     * is reported on its second occurrence.
+     */
+    public static List<FieldErrorResponse> validate(BookPatchItemDTO item, Set<Long> ids) {
+        if (item == null) {
+            return List.of(new FieldErrorResponse("", "Item must not be null!"));
+        }
+        List<FieldErrorResponse> fieldErrors = new ArrayList<>();
+        if (item.id() == null || item.id() < 1) {
+            fieldErrors.add(new FieldErrorResponse("id", "Book ID must be a positive number!"));
+        } else if (!ids.add(item.id())) {
+            fieldErrors.add(new FieldErrorResponse("id", "Book appears more than once in the batch!"));
+        }
+        if (isBookPatchDTOEmpty(item.patch())) {
+            fieldErrors.add(new FieldErrorResponse("patch", "Nothing to update"));
+        }
+        return fieldErrors;
+    }
+
+    public static boolean isBookPatchDTOEmpty(BookPatchDTO bookPatchDTO) {
+        if (bookPatchDTO == null) return true;
+        boolean isTitleEmpty = StringUtils.isBlank(bookPatchDTO.title());
+        boolean isAuthorEmpty = StringUtils.isBlank(bookPatchDTO.author());
+        return isTitleEmpty && isAuthorEmpty;
+    }
+}
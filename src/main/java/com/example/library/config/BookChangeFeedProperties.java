@@ -0,0 +1,21 @@
+package com.example.library.config;
+
+import com.example.library.service.BookChangeFeed;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the change feed served by {@link BookChangeFeed}.
+ *
+ * @param bufferSize     number of most recent changes kept for subscribers that lag behind or reconnect
+ * @param heartbeat      how often an idle stream gets a comment line, so dead connections are noticed
+ * @param timeout        how long one stream stays open before the client has to reconnect with Last-Event-ID
+ * @param maxSubscribers number of streams open at the same time; each one holds a platform thread
+ */
+@ConfigurationProperties("library.books.stream")
+public record BookChangeFeedProperties(@DefaultValue("1024") int bufferSize,
+                                       @DefaultValue("15s") Duration heartbeat,
+                                       @DefaultValue("30m") Duration timeout,
+                                       @DefaultValue("256") int maxSubscribers) {}
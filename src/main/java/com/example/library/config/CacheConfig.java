@@ -0,0 +1,39 @@
+package com.example.library.config;
+
+import com.example.library.controller.IdempotentResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+    public static final String BOOKS_CACHE = "books";
+    public static final String IDEMPOTENCY_CACHE = "idempotency-keys";
+
+    /**
+     * Caffeine caches bounded by the configured size and TTL. The transaction-aware proxy defers puts and
+     * evictions issued inside a transaction until it commits, so readers never see uncommitted state and a
+     * rolled back write does not drop a valid entry.
+     * <p>
+     * Responses kept for Idempotency-Key replays are bounded by their total size rather than by count.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${library.cache.books.spec}") String booksCacheSpec,
+                                     IdempotencyProperties idempotencyProperties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(BOOKS_CACHE);
+        caffeineCacheManager.setCacheSpecification(booksCacheSpec);
+        caffeineCacheManager.registerCustomCache(IDEMPOTENCY_CACHE, Caffeine.newBuilder()
+                .maximumWeight(idempotencyProperties.maxStoredSize().toBytes())
+                .<Object, Object>weigher((key, value) -> value instanceof IdempotentResponse response ? response.weight() : 1)
+                .expireAfterWrite(idempotencyProperties.ttl())
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.library.config;
+
+import com.example.library.controller.IdempotencyKeyFilter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the responses kept for {@link IdempotencyKeyFilter}.
+ *
+ * @param ttl           how long a response is replayed for retries with the same Idempotency-Key
+ * @param maxStoredSize upper bound of the stored response bodies; the least recently used keys are evicted first
+ */
+@ConfigurationProperties("library.idempotency")
+public record IdempotencyProperties(@DefaultValue("24h") Duration ttl,
+                                    @DefaultValue("64MB") DataSize maxStoredSize) {}
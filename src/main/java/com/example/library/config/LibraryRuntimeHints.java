@@ -0,0 +1,67 @@
+package com.example.library.config;
+
+import com.example.library.exception.ErrorResponse;
+import com.example.library.exception.FieldErrorResponse;
+import com.example.library.exception.GlobalExceptionHandler;
+import com.example.library.logging.BookServiceLoggingAspect;
+import com.example.library.logging.GlobalExceptionHandlerLoggingAspect;
+import com.example.library.model.*;
+import com.example.library.service.*;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Reachability hints for the native image ({@code mvn -Pnative package}) that Spring AOT cannot derive
+ * from the bean definitions alone. Libraries without hints of their own (Hibernate, Caffeine, Flyway) are
+ * covered by the GraalVM reachability metadata repository, which the native profile adds to the build.
+ */
+public class LibraryRuntimeHints implements RuntimeHintsRegistrar {
+    /**
+     * Types read and written by Jackson. Spring AOT registers the bodies of handler methods, but not the element
+     * types of collections, the error responses written by the exception handlers, the rows of the export or the
+     * events of the change stream.
+     */
+    private static final List<Class<?>> BINDING_TYPES = List.of(
+            BookDTO.class, BookPostDTO.class, BookPutDTO.class, BookPatchDTO.class, BookPatchItemDTO.class,
+            BookPageDTO.class, BookSearchPageDTO.class, BookDeleteResultDTO.class, BookBatchItemResult.class,
+            BookBatchItemStatus.class, BookSortKey.class, BookExportFormat.class,
+            BookChangedEvent.class, BookChangeType.class,
+            CacheStatsDTO.class, MethodLatencyDTO.class,
+            ErrorResponse.class, FieldErrorResponse.class);
+
+    /**
+     * Beans advised by the aspects in {@code com.example.library.logging}: AspectJ resolves the
+     * {@link java.lang.reflect.Method} of every join point, and the advice methods are invoked reflectively.
+     */
+    private static final List<Class<?>> ADVISED_TYPES = List.of(
+            BookService.class, BookBatchService.class, GlobalExceptionHandler.class);
+
+    private static final List<Class<?>> ASPECT_TYPES = List.of(
+            BookServiceLoggingAspect.class, GlobalExceptionHandlerLoggingAspect.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                BINDING_TYPES.toArray(Class<?>[]::new));
+
+        // BookMapper switches over the sealed BookInput hierarchy with record patterns.
+        hints.reflection().registerType(BookInput.class, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+        for (Class<?> permitted : BookInput.class.getPermittedSubclasses()) {
+            hints.reflection().registerType(permitted,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.reflection().registerType(Book.class,
+                MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        ADVISED_TYPES.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INTROSPECT_DECLARED_METHODS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        ASPECT_TYPES.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_DECLARED_METHODS));
+    }
+}
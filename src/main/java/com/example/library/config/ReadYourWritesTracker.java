@@ -0,0 +1,80 @@
+package com.example.library.config;
+
+import com.example.library.model.BookChangedEvent;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decides when reads must go to the primary because a replica may not have caught up with a client's own
+ * write. Only the writing client is pinned: the rest of the writing request is marked with a request attribute,
+ * and the client gets a cookie with the deadline of the configured window, so its next reads stay on the
+ * primary even when they reach another instance. Reads of other clients keep going to the replicas.
+ */
+public class ReadYourWritesTracker implements BooleanSupplier {
+    public static final String COOKIE = "LIBRARY_PRIMARY_UNTIL";
+
+    private static final String ATTRIBUTE = ReadYourWritesTracker.class.getName() + ".WROTE";
+
+    private final long windowMillis;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (windowMillis <= 0 || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        attributes.setAttribute(ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            long until = System.currentTimeMillis() + windowMillis;
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(until))
+                    .path("/")
+                    .httpOnly(true)
+                    .maxAge(Duration.ofMillis(windowMillis))
+                    .build()
+                    .toString());
+        }
+    }
+
+    /**
+     * Returns true if the current read must be served by the primary.
+     */
+    @Override
+    public boolean getAsBoolean() {
+        if (windowMillis <= 0 || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        return attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null
+                || System.currentTimeMillis() < cookieDeadline(attributes.getRequest());
+    }
+
+    private static long cookieDeadline(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.library.config;
+
+import com.example.library.logging.LoggerProvider;
+import org.slf4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Hands out connections of the replicas in round-robin order. A replica that fails to give a connection is
+ * ejected for a while and the next one is tried; when all replicas are ejected or failing, or when the
+ * caller must read its own writes, the connection comes from the primary.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+    private final List<DataSource> replicas;
+    private final DataSource primary;
+    private final long ejectNanos;
+    private final BooleanSupplier primaryRequired;
+    private final Logger logger;
+    private final AtomicInteger next = new AtomicInteger();
+    // System.nanoTime() until which the replica at the same index is skipped, 0 if it is healthy
+    private final AtomicLongArray ejectedUntil;
+
+    public ReplicaDataSource(List<DataSource> replicas, DataSource primary, Duration ejectDuration,
+                             BooleanSupplier primaryRequired, LoggerProvider loggerProvider) {
+        this.replicas = List.copyOf(replicas);
+        this.primary = primary;
+        this.ejectNanos = ejectDuration.toNanos();
+        this.primaryRequired = primaryRequired;
+        this.logger = loggerProvider.getLogger(ReplicaDataSource.class);
+        this.ejectedUntil = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (primaryRequired.getAsBoolean()) {
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            long until = ejectedUntil.get(index);
+            if (until != 0 && System.nanoTime() - until < 0) {
+                continue;
+            }
+            try {
+                Connection connection = replicas.get(index).getConnection();
+                if (until != 0 && ejectedUntil.compareAndSet(index, until, 0)) {
+                    logger.info("Replica {} is back in rotation", index);
+                }
+                return connection;
+            } catch (SQLException ex) {
+                ejectedUntil.set(index, System.nanoTime() + ejectNanos);
+                logger.warn("Replica {} ejected for {} ms: {}", index, ejectNanos / 1_000_000, ex.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the configured credentials");
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the replica at the given index is currently skipped.
+     */
+    public boolean isEjected(int index) {
+        long until = ejectedUntil.get(index);
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.library.config;
+
+import com.example.library.logging.LoggerProvider;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to the replicas and everything else to the primary. The split relies on the
+ * services being read-only at class level with read-write mutators. The lazy proxy only fetches a physical
+ * connection once the transaction manager has marked it read-only or not, so the flag picks the pool.
+ * Replaces the auto-configured data source when {@code library.datasource.routing.enabled} is true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesTracker(properties.readYourWritesWindow());
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, ReplicaRoutingProperties properties,
+                                               ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry,
+                                               LoggerProvider loggerProvider) {
+        if (properties.replicas().isEmpty()) {
+            throw new IllegalStateException("library.datasource.routing.enabled is true, but no replicas are configured");
+        }
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReplicaRoutingProperties.Replica replica = properties.replicas().get(i);
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(replica.url());
+            config.setUsername(replica.username() != null ? replica.username() : primaryDataSource.getUsername());
+            config.setPassword(replica.password() != null ? replica.password() : primaryDataSource.getPassword());
+            config.setReadOnly(true);
+            // a replica that is down must not stop the application from starting
+            config.setInitializationFailTimeout(-1);
+            config.setMetricRegistry(meterRegistry);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(replicas, primaryDataSource, properties.ejectDuration(), readYourWritesTracker, loggerProvider);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
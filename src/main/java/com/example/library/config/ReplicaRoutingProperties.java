@@ -0,0 +1,23 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the routing of read-only transactions to replicas, see {@link ReplicaRoutingConfig}.
+ *
+ * @param enabled              whether read-only transactions go to the replicas instead of the primary
+ * @param replicas             replica databases; pool settings are copied from {@code spring.datasource.hikari}
+ * @param ejectDuration        how long a replica that failed to hand out a connection is skipped
+ * @param readYourWritesWindow how long the writing client reads from the primary after a write, zero to disable
+ */
+@ConfigurationProperties("library.datasource.routing")
+public record ReplicaRoutingProperties(@DefaultValue("false") boolean enabled,
+                                       @DefaultValue List<Replica> replicas,
+                                       @DefaultValue("30s") Duration ejectDuration,
+                                       @DefaultValue("2s") Duration readYourWritesWindow) {
+    public record Replica(String url, String username, String password) {}
+}
@@ -1,25 +1,52 @@
 package com.example.library.controller;
 
+import com.example.library.model.BookBatchItemResult;
+import com.example.library.model.BookChangedEvent;
+import com.example.library.model.BookCursor;
 import com.example.library.model.BookDTO;
+import com.example.library.model.BookDeleteResultDTO;
+import com.example.library.model.BookExportFormat;
+import com.example.library.model.BookPageDTO;
 import com.example.library.model.BookPatchDTO;
+import com.example.library.model.BookPatchItemDTO;
 import com.example.library.model.BookPostDTO;
 import com.example.library.model.BookPutDTO;
+import com.example.library.model.BookSearchPageDTO;
+import com.example.library.model.BookSortKey;
+import com.example.library.service.BookBatchService;
+import com.example.library.service.BookChangeFeed;
+import com.example.library.service.BookExportService;
 import com.example.library.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Tag(
@@ -31,19 +58,60 @@ import java.util.List;
 @Validated
 public class BookController {
     private final BookService bookService;
+    private final BookExportService bookExportService;
+    private final BookBatchService bookBatchService;
+    private final BookChangeFeed bookChangeFeed;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookExportService bookExportService, BookBatchService bookBatchService,
+                          BookChangeFeed bookChangeFeed) {
         this.bookService = bookService;
+        this.bookExportService = bookExportService;
+        this.bookBatchService = bookBatchService;
+        this.bookChangeFeed = bookChangeFeed;
     }
 
     @Operation(
-            summary = "Get all books",
-            description = "Returns full list of books in database.",
+            summary = "Get a page of books",
+            description = "Returns books using keyset pagination. " +
+                    "Pass 'nextCursor' of the previous page as 'after' to fetch the next one. " +
+                    "The response carries a weak ETag that changes whenever any book changes, " +
+                    "so a client may revalidate with If-None-Match.",
+            parameters = {
+                    @Parameter(
+                            name = "after",
+                            description = "'nextCursor' of the previous page; only valid with the same sort key",
+                            example = "dGl0bGU6NDI6V2FyIGFuZCBQZWFjZQ"
+                    ),
+                    @Parameter(
+                            name = "limit",
+                            description = "Maximum number of books on the page (1-1000)",
+                            example = "50"
+                    ),
+                    @Parameter(
+                            name = "sort",
+                            description = "Sort key: id, title or author",
+                            example = "title"
+                    ),
+                    @Parameter(
+                            name = "direction",
+                            description = "Sort direction: asc or desc",
+                            example = "asc"
+                    )
+            },
             responses = {
                     @ApiResponse(
                             responseCode = "200",
                             description = "Successfully retrieved books",
-                            content = @Content(schema = @Schema(implementation = BookDTO.class))
+                            content = @Content(schema = @Schema(implementation = BookPageDTO.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Books have not changed since the ETag passed in If-None-Match"
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid pagination parameters",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
                     ),
                     @ApiResponse(
                             responseCode = "500",
@@ -53,14 +121,151 @@ public class BookController {
             }
     )
     @GetMapping("/")
-    public ResponseEntity<List<BookDTO>> getBooks() {
-        List<BookDTO> books = bookService.getAllBooks();
-        return new ResponseEntity<>(books, HttpStatus.OK);
+    public ResponseEntity<BookPageDTO> getBooks(@RequestParam(required = false) String after,
+                                                @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int limit,
+                                                @RequestParam(defaultValue = "id") String sort,
+                                                @RequestParam(defaultValue = "asc") String direction,
+                                                WebRequest webRequest) {
+        BookSortKey sortKey = BookSortKey.from(sort);
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        BookCursor cursor = after == null ? null : BookCursor.decode(after, sortKey);
+        // The counter is read before the page, so the ETag can only be older than the body, never newer.
+        String etag = ETags.forChangeCounter(bookService.getChangeCounter());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        BookPageDTO books = bookService.getBooks(cursor, sortKey, sortDirection, limit);
+        return ResponseEntity.ok().eTag(etag).body(books);
+    }
+
+    @Operation(
+            summary = "Export all books",
+            description = "Streams the whole catalog ordered by ID, one book per line. " +
+                    "Rows are read in chunks as they are written, so the export works for any table size. " +
+                    "CSV columns are id, title, author and version.",
+            parameters = @Parameter(
+                    name = "format",
+                    description = "Export format: ndjson or csv",
+                    example = "ndjson"
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Books are being streamed",
+                            content = {
+                                    @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = BookDTO.class)),
+                                    @Content(mediaType = "text/csv")
+                            }
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Unknown export format",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @GetMapping("/export")
+    public void exportBooks(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        BookExportFormat exportFormat = BookExportFormat.from(format);
+        response.setContentType(exportFormat.mediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("books." + exportFormat.extension())
+                .build()
+                .toString());
+        bookExportService.exportBooks(exportFormat, response.getOutputStream());
+    }
+
+    @Operation(
+            summary = "Stream book changes",
+            description = "Server-Sent Events stream of committed changes: 'created', 'updated' and 'deleted' events " +
+                    "whose data is the change with the IDs and, except for deletions, the new state of the books. " +
+                    "A reconnecting client passes the ID of the last event it received in Last-Event-ID and gets " +
+                    "the changes it missed. If they are no longer buffered, the stream starts with a 'reset' event " +
+                    "and the client should reload the books. Clients that fall too far behind are disconnected.",
+            parameters = @Parameter(
+                    name = "Last-Event-ID",
+                    in = ParameterIn.HEADER,
+                    description = "ID of the last event received before reconnecting",
+                    example = "1760000000000-42"
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Changes are being streamed",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = BookChangedEvent.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "The maximum number of open streams is reached, retry later",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return bookChangeFeed.subscribe(lastEventId);
+    }
+
+    @Operation(
+            summary = "Search books",
+            description = "Finds books whose title or author match the query, best matches first. " +
+                    "Whole words are matched with full-text search, and slightly misspelled words " +
+                    "are still found by trigram similarity.",
+            parameters = {
+                    @Parameter(
+                            name = "q",
+                            description = "Search query, e.g. words from the title or the author's name",
+                            example = "tolstoy war",
+                            required = true
+                    ),
+                    @Parameter(
+                            name = "page",
+                            description = "Zero-based page number (0-1000)",
+                            example = "0"
+                    ),
+                    @Parameter(
+                            name = "size",
+                            description = "Number of books on the page (1-100)",
+                            example = "20"
+                    )
+            },
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Search completed",
+                            content = @Content(schema = @Schema(implementation = BookSearchPageDTO.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Query is blank or paging parameters are invalid",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @GetMapping("/search")
+    public ResponseEntity<BookSearchPageDTO> searchBooks(@RequestParam @NotBlank @Size(max = 200) String q,
+                                                         @RequestParam(defaultValue = "0") @Min(0) @Max(1000) int page,
+                                                         @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        BookSearchPageDTO result = bookService.searchBooks(q, page, size);
+        return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
     @Operation(
             summary = "Get book by ID",
             description = "Finds and returns a single book by its unique identifier. " +
+                    "The ETag of the response is the book version. " +
                     "Returns 404 if book not found.",
             parameters = @Parameter(
                     name = "id",
@@ -74,6 +279,10 @@ public class BookController {
                             description = "Successfully retrieved book",
                             content = @Content(schema = @Schema(implementation = BookDTO.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Book has not changed since the ETag passed in If-None-Match"
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Book not found",
@@ -94,7 +303,7 @@ public class BookController {
     @GetMapping("/{id}")
     public ResponseEntity<BookDTO> getBook(@PathVariable @Min(1) Long id) {
         BookDTO book = bookService.getBookById(id);
-        return new ResponseEntity<>(book, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(ETags.forBook(book.version())).body(book);
     }
 
     @Operation(
@@ -106,6 +315,13 @@ public class BookController {
                     required = true,
                     content = @Content(schema = @Schema(implementation = BookPostDTO.class))
             ),
+            parameters = @Parameter(
+                    name = "Idempotency-Key",
+                    in = ParameterIn.HEADER,
+                    description = "Client-generated key of the request; a retry with the same key and body gets the " +
+                            "original response back, marked with Idempotent-Replayed, without applying it again",
+                    example = "5f0c6a8e-4b7e-4d1a-9a43-2f1c9d7e6b10"
+            ),
             responses = {
                     @ApiResponse(
                             responseCode = "201",
@@ -119,7 +335,12 @@ public class BookController {
                     ),
                     @ApiResponse(
                             responseCode = "409",
-                            description = "Book already exists",
+                            description = "Book already exists, or a request with the same Idempotency-Key is still being processed",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "Idempotency-Key was already used for a different request",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
                     ),
                     @ApiResponse(
@@ -135,16 +356,126 @@ public class BookController {
         return new ResponseEntity<>(newBook, HttpStatus.CREATED);
     }
 
+    @Operation(
+            summary = "Create many books",
+            description = "Adds up to 1000 books in one transaction. " +
+                    "Every item is validated and checked for duplicates on its own, " +
+                    "and the response reports per-item results in request order.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Books to create",
+                    required = true,
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookPostDTO.class)))
+            ),
+            parameters = @Parameter(
+                    name = "Idempotency-Key",
+                    in = ParameterIn.HEADER,
+                    description = "Client-generated key of the request; a retry with the same key and body gets the " +
+                            "original response back, marked with Idempotent-Replayed, without applying it again",
+                    example = "5f0c6a8e-4b7e-4d1a-9a43-2f1c9d7e6b10"
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Batch processed, see per-item results",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookBatchItemResult.class)))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Batch is empty or too large",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "A request with the same Idempotency-Key is still being processed",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "Idempotency-Key was already used for a different request",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookBatchItemResult>> addBooks(@RequestBody @NotEmpty @Size(max = 1000) List<BookPostDTO> books) {
+        List<BookBatchItemResult> results = bookBatchService.addBooks(books);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Partially update many books",
+            description = "Applies up to 1000 partial updates in one transaction. " +
+                    "Blank fields are left unchanged, as in PATCH /books/{id}. " +
+                    "Every item is checked on its own, and the response reports per-item results in request order.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Books to update",
+                    required = true,
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookPatchItemDTO.class)))
+            ),
+            parameters = @Parameter(
+                    name = "Idempotency-Key",
+                    in = ParameterIn.HEADER,
+                    description = "Client-generated key of the request; a retry with the same key and body gets the " +
+                            "original response back, marked with Idempotent-Replayed, without applying it again",
+                    example = "5f0c6a8e-4b7e-4d1a-9a43-2f1c9d7e6b10"
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Batch processed, see per-item results",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookBatchItemResult.class)))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Batch is empty or too large",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "A request with the same Idempotency-Key is still being processed",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "Idempotency-Key was already used for a different request",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @PatchMapping("/batch")
+    public ResponseEntity<List<BookBatchItemResult>> patchBooks(@RequestBody @NotEmpty @Size(max = 1000) List<BookPatchItemDTO> items) {
+        List<BookBatchItemResult> results = bookBatchService.patchBooks(items);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     @Operation(
             summary = "Delete book by ID",
             description = "Finds and deletes book by its unique identifier. " +
                     "Returns 404 if book not found.",
-            parameters = @Parameter(
-                    name = "id",
-                    description = "ID of the book to delete",
-                    example = "1",
-                    required = true
-            ),
+            parameters = {
+                    @Parameter(
+                            name = "id",
+                            description = "ID of the book to delete",
+                            example = "1",
+                            required = true
+                    ),
+                    @Parameter(
+                            name = HttpHeaders.IF_MATCH,
+                            in = ParameterIn.HEADER,
+                            description = "ETag of the book the change is based on; the change is rejected with 412 if the book has changed since",
+                            example = "\"3\""
+                    )
+            },
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -160,6 +491,11 @@ public class BookController {
                             description = "Invalid ID supplied",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = "Book was modified since the ETag passed in If-Match",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Internal server error",
@@ -168,22 +504,65 @@ public class BookController {
             }
     )
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteBook(@PathVariable @Min(1) Long id) {
-        bookService.deleteBookById(id);
+    public ResponseEntity<Void> deleteBook(@PathVariable @Min(1) Long id,
+                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        bookService.deleteBookById(id, ETags.parseIfMatch(ifMatch));
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @Operation(
+            summary = "Delete many books by ID",
+            description = "Deletes up to 1000 books in a single statement. " +
+                    "IDs that do not exist are ignored; the response tells how many books were deleted.",
+            parameters = @Parameter(
+                    name = "ids",
+                    description = "Comma-separated IDs of the books to delete",
+                    example = "1,2,3",
+                    required = true
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Books successfully deleted",
+                            content = @Content(schema = @Schema(implementation = BookDeleteResultDTO.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid IDs supplied",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @DeleteMapping("/")
+    public ResponseEntity<BookDeleteResultDTO> deleteBooks(@RequestParam @NotEmpty @Size(max = 1000) List<@NotNull @Min(1) Long> ids) {
+        BookDeleteResultDTO result = bookService.deleteBooksByIds(ids);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     @Operation(
             summary = "Update an existing book by ID",
             description = "Updates an existing book in the database. " +
                     "Returns the updated book information after applying changes. " +
                     "Returns 404 if book not found",
-            parameters = @Parameter(
-                    name = "id",
-                    description = "ID of the book to update",
-                    example = "1",
-                    required = true
-            ),
+            parameters = {
+                    @Parameter(
+                            name = "id",
+                            description = "ID of the book to update",
+                            example = "1",
+                            required = true
+                    ),
+                    @Parameter(
+                            name = HttpHeaders.IF_MATCH,
+                            in = ParameterIn.HEADER,
+                            description = "ETag of the book the change is based on; the change is rejected with 412 if the book has changed since",
+                            example = "\"3\""
+                    )
+            },
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Book data that needs to be updated",
                     required = true,
@@ -205,6 +584,11 @@ public class BookController {
                             description = "Book not found",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = "Book was modified since the ETag passed in If-Match",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Internal server error",
@@ -213,20 +597,29 @@ public class BookController {
             }
     )
     @PutMapping("/{id}")
-    public ResponseEntity<BookDTO> updateBook(@Valid @NotNull @RequestBody BookPutDTO bookPutDTO, @PathVariable @Min(1) Long id) {
-        BookDTO oldBook = bookService.updateBook(bookPutDTO, id);
-        return new ResponseEntity<>(oldBook, HttpStatus.OK);
+    public ResponseEntity<BookDTO> updateBook(@Valid @NotNull @RequestBody BookPutDTO bookPutDTO, @PathVariable @Min(1) Long id,
+                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BookDTO oldBook = bookService.updateBook(bookPutDTO, id, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forBook(oldBook.version())).body(oldBook);
     }
 
     @Operation(
             summary = "Partially update an existing book",
             description = "Updates only the provided fields of the book",
-            parameters = @Parameter(
-                    name = "id",
-                    description = "ID of the book to update",
-                    example = "1",
-                    required = true
-            ),
+            parameters = {
+                    @Parameter(
+                            name = "id",
+                            description = "ID of the book to update",
+                            example = "1",
+                            required = true
+                    ),
+                    @Parameter(
+                            name = HttpHeaders.IF_MATCH,
+                            in = ParameterIn.HEADER,
+                            description = "ETag of the book the change is based on; the change is rejected with 412 if the book has changed since",
+                            example = "\"3\""
+                    )
+            },
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Partial data for updating the book",
                     required = true,
@@ -248,6 +641,11 @@ public class BookController {
                             description = "Book not found",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = "Book was modified since the ETag passed in If-Match",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Internal server error",
@@ -256,8 +654,9 @@ public class BookController {
             }
     )
     @PatchMapping("/{id}")
-    public ResponseEntity<BookDTO> patchBook(@RequestBody @NotNull BookPatchDTO bookDto, @PathVariable @Min(1) Long id) {
-        BookDTO oldBook = bookService.patchBook(bookDto, id);
-        return new ResponseEntity<>(oldBook, HttpStatus.OK);
+    public ResponseEntity<BookDTO> patchBook(@RequestBody @NotNull BookPatchDTO bookDto, @PathVariable @Min(1) Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BookDTO oldBook = bookService.patchBook(bookDto, id, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forBook(oldBook.version())).body(oldBook);
     }
 }
@@ -0,0 +1,60 @@
+package com.example.library.controller;
+
+import com.example.library.model.CacheStatsDTO;
+import com.example.library.service.CacheStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(
+        name = "Caches",
+        description = "API for inspecting in-memory caches"
+)
+@RestController
+@RequestMapping("/caches/")
+public class CacheController {
+    private final CacheStatsService cacheStatsService;
+
+    public CacheController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    @Operation(
+            summary = "Get cache statistics",
+            description = "Returns hit, miss and eviction counters of a cache, to help sizing it. " +
+                    "Returns 404 if cache not found.",
+            parameters = @Parameter(
+                    name = "name",
+                    description = "Name of the cache",
+                    example = "books",
+                    required = true
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successfully retrieved cache statistics",
+                            content = @Content(schema = @Schema(implementation = CacheStatsDTO.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Cache not found",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @GetMapping("/{name}/stats")
+    public ResponseEntity<CacheStatsDTO> getCacheStats(@PathVariable String name) {
+        CacheStatsDTO stats = cacheStatsService.getCacheStats(name);
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.library.controller;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds and parses the entity tags used for conditional requests on books.
+ */
+public final class ETags {
+    private static final Pattern ENTITY_TAG = Pattern.compile("\\s*(?:(W/)?\"([^\"]*)\")?\\s*(?:,|$)");
+
+    private ETags() {
+    }
+
+    public static String forBook(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The collection tag is weak: the page body also carries an approximate total that may drift without
+     * any change of the books themselves.
+     */
+    public static String forChangeCounter(long counter) {
+        return "W/\"" + counter + "\"";
+    }
+
+    /**
+     * Returns the versions accepted by an If-Match header, or null when the header does not restrict them.
+     * If-Match uses the strong comparison, so weak tags and tags that are not a book version never match;
+     * a header made only of such tags gives an empty list and the request fails with 412.
+     */
+    public static List<Long> parseIfMatch(String ifMatch) {
+        if (StringUtils.isBlank(ifMatch) || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        Matcher matcher = ENTITY_TAG.matcher(ifMatch);
+        int end = 0;
+        while (end < ifMatch.length() && matcher.find(end) && matcher.start() == end) {
+            if (matcher.group(2) != null && matcher.group(1) == null) {
+                try {
+                    versions.add(Long.valueOf(matcher.group(2)));
+                } catch (NumberFormatException ignored) {
+                    // not a tag of ours, so it matches no version
+                }
+            }
+            end = matcher.end();
+        }
+        if (end < ifMatch.length()) {
+            throw new IllegalArgumentException("If-Match must be '*' or a list of ETags, e.g. \"3\", \"4\"");
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.library.controller;
+
+import java.util.Map;
+
+/**
+ * What {@link IdempotencyKeyFilter} keeps per Idempotency-Key: the fingerprint of the request and, once it has
+ * completed, the response to replay. A pending entry has no status yet.
+ *
+ * @param fingerprint SHA-256 of the request body
+ * @param status      HTTP status of the response, 0 while the request is still processed
+ * @param headers     response headers that describe the body, such as Content-Type and ETag
+ * @param body        response body
+ */
+public record IdempotentResponse(byte[] fingerprint, int status, Map<String, String> headers, byte[] body) {
+    private static final int ENTRY_OVERHEAD = 256;
+
+    public static IdempotentResponse pending(byte[] fingerprint) {
+        return new IdempotentResponse(fingerprint, 0, Map.of(), new byte[0]);
+    }
+
+    public boolean isPending() {
+        return status == 0;
+    }
+
+    /**
+     * Approximate memory taken by the entry, in bytes; bounds the size of the store.
+     */
+    public int weight() {
+        int weight = ENTRY_OVERHEAD + fingerprint.length + body.length;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            weight += header.getKey().length() + header.getValue().length();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.library.controller;
+
+import com.example.library.logging.ServiceTraceRegistry;
+import com.example.library.model.MethodLatencyDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(
+        name = "Tracing",
+        description = "API for inspecting service call latency"
+)
+@RestController
+@RequestMapping("/tracing/")
+public class TracingController {
+    private final ServiceTraceRegistry serviceTraceRegistry;
+
+    public TracingController(ServiceTraceRegistry serviceTraceRegistry) {
+        this.serviceTraceRegistry = serviceTraceRegistry;
+    }
+
+    @Operation(
+            summary = "Get service method latency",
+            description = "Returns call count, failure count, mean and recent maximum latency of every service method " +
+                    "called since application start.",
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved latency",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = MethodLatencyDTO.class)))
+            )
+    )
+    @GetMapping("/methods")
+    public ResponseEntity<List<MethodLatencyDTO>> getMethodLatencies() {
+        List<MethodLatencyDTO> latencies = serviceTraceRegistry.getLatencies();
+        return new ResponseEntity<>(latencies, HttpStatus.OK);
+    }
+}
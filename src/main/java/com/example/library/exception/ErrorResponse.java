@@ -1,6 +1,9 @@
 package com.example.library.exception;
 
+import com.example.library.logging.RequestIdFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.slf4j.MDC;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,9 +19,12 @@ public record ErrorResponse(
         @Schema(description = "Error code representing the type of error", example = "400")
         String errorCode,
         @Schema(description = "List of field-specific error details, if applicable")
-        List<FieldErrorResponse> fieldErrors) {
+        List<FieldErrorResponse> fieldErrors,
+        @Schema(description = "ID of the request, to find its log lines", example = "7f8e4c2a-2b1d-4c9e-9a57-0e4f1b6c3d21")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String requestId) {
     public ErrorResponse(String message, String errorCode, List<FieldErrorResponse> fieldErrors) {
-        this(LocalDateTime.now().toString(), message, errorCode, fieldErrors);
+        this(LocalDateTime.now().toString(), message, errorCode, fieldErrors, MDC.get(RequestIdFilter.MDC_KEY));
     }
 
     public static ErrorResponse of(String message, String errorCode, List<FieldErrorResponse> fieldErrors) {
@@ -1,59 +1,78 @@
 package com.example.library.logging;
 
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Traces the calls of the book services at close to no cost in steady state. Every call only measures its
+ * latency; failed calls and calls slower than the threshold are always logged, and a sample of the remaining
+ * calls is logged at DEBUG level. Arguments and results of successful calls are rendered lazily and truncated;
+ * a failure is logged with its arguments in full, since they are what is needed to reproduce it.
+ */
 @Aspect
 @Component
 public class BookServiceLoggingAspect {
-    private final LoggerProvider loggerProvider;
+    private final ServiceTraceRegistry traceRegistry;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxRenderedLength;
 
-    BookServiceLoggingAspect(LoggerProvider loggerProvider) {
-        this.loggerProvider = loggerProvider;
+    BookServiceLoggingAspect(ServiceTraceRegistry traceRegistry, ServiceTracingProperties properties) {
+        this.traceRegistry = traceRegistry;
+        this.sampleRate = properties.sampleRate();
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+        this.maxRenderedLength = properties.maxRenderedLength();
     }
 
-    @Pointcut("execution(* com.example.library.service.*.*(..))")
+    @Pointcut("execution(public * com.example.library.service.BookService.*(..)) || " +
+            "execution(public * com.example.library.service.BookBatchService.*(..))")
     public void bookServiceMethods() {}
 
-    @Before("bookServiceMethods()")
-    public void logBefore(JoinPoint joinPoint) {
-        Logger logger = loggerProvider.getLogger(joinPoint);
-        if (logger.isDebugEnabled()) {
-            logger.debug("Class: {} | Entering method: {} | Args: {}",
-                    joinPoint.getTarget().getClass().getSimpleName(),
-                    joinPoint.getSignature().getName(),
-                    Arrays.toString(joinPoint.getArgs())
-            );
+    @Around("bookServiceMethods()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceTraceRegistry.MethodTrace trace = traceRegistry.get(joinPoint);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            long elapsedNanos = System.nanoTime() - start;
+            trace.record(elapsedNanos, true);
+            trace.logger().error("Failed call: {} after {} ms | Args: {} | Exception: {} - {}",
+                    trace.name(),
+                    toMillis(elapsedNanos),
+                    Arrays.toString(joinPoint.getArgs()),
+                    ex.getClass().getSimpleName(),
+                    ex.getMessage(),
+                    ex);
+            throw ex;
         }
-    }
+        long elapsedNanos = System.nanoTime() - start;
+        trace.record(elapsedNanos, false);
 
-    @AfterReturning(pointcut = "bookServiceMethods()", returning = "result")
-    public void logAfterReturning(JoinPoint joinPoint, Object result) {
-        Logger logger = loggerProvider.getLogger(joinPoint);
-        if (logger.isDebugEnabled()) {
-            logger.debug("Class: {} | Executed method: {} | Args: {} | Result: [{}]",
-                    joinPoint.getTarget().getClass().getSimpleName(),
-                    joinPoint.getSignature().getName(),
-                    Arrays.toString(joinPoint.getArgs()),
-                    result
-            );
+        Logger logger = trace.logger();
+        if (elapsedNanos >= slowThresholdNanos) {
+            logger.warn("Slow call: {} took {} ms | Args: {} | Result: [{}]",
+                    trace.name(),
+                    toMillis(elapsedNanos),
+                    TraceRenderer.lazy(joinPoint.getArgs(), maxRenderedLength),
+                    TraceRenderer.lazy(result, maxRenderedLength));
+        } else if (logger.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            logger.debug("Sampled call: {} took {} ms | Args: {} | Result: [{}]",
+                    trace.name(),
+                    toMillis(elapsedNanos),
+                    TraceRenderer.lazy(joinPoint.getArgs(), maxRenderedLength),
+                    TraceRenderer.lazy(result, maxRenderedLength));
         }
+        return result;
     }
 
-    @AfterThrowing(pointcut = "bookServiceMethods()", throwing = "ex")
-    public void logAfterThrowing(JoinPoint joinPoint, Exception ex) {
-        Logger logger = loggerProvider.getLogger(joinPoint);
-        logger.error("Class: {} | Failed method: {} | Args: {} | Exception: {} - {}",
-                    joinPoint.getTarget().getClass().getSimpleName(),
-                    joinPoint.getSignature().getName(),
-                    Arrays.toString(joinPoint.getArgs()),
-                    ex.getClass().getSimpleName(),
-                    ex.getMessage(),
-                    ex
-        );
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
     }
-}
\ No newline at end of file
+}
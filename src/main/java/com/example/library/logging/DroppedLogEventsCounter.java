@@ -0,0 +1,25 @@
+package com.example.library.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import net.logstash.logback.appender.listener.AppenderListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the log events that the asynchronous appender drops because its ring buffer is full. Logback
+ * creates the listener before the Spring context exists, so the count is kept in a static field and
+ * exported by {@link LoggingMetrics}.
+ */
+public class DroppedLogEventsCounter implements AppenderListener<ILoggingEvent> {
+    private static final LongAdder DROPPED = new LongAdder();
+
+    @Override
+    public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+        DROPPED.increment();
+    }
+
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+}
@@ -8,7 +8,18 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class LoggerProvider {
+    private final ClassValue<Logger> loggers = new ClassValue<>() {
+        @Override
+        protected Logger computeValue(Class<?> type) {
+            return LoggerFactory.getLogger(type);
+        }
+    };
+
     public Logger getLogger(JoinPoint joinPoint) {
-        return LoggerFactory.getLogger(joinPoint.getTarget().getClass());
+        return getLogger(joinPoint.getTarget().getClass());
+    }
+
+    public Logger getLogger(Class<?> type) {
+        return loggers.get(type);
     }
 }
@@ -0,0 +1,16 @@
+package com.example.library.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoggingMetrics implements MeterBinder {
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("library.logging.events.dropped", DroppedLogEventsCounter.class, ignored -> DroppedLogEventsCounter.dropped())
+                .description("Log events dropped because the asynchronous appender was full")
+                .register(registry);
+    }
+}
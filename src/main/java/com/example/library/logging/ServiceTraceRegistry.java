@@ -0,0 +1,99 @@
+package com.example.library.logging;
+
+import com.example.library.model.MethodLatencyDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one {@link MethodTrace} per traced method, so the logger, the method name and the timers are
+ * resolved once and every call only records its latency.
+ */
+@Component
+public class ServiceTraceRegistry {
+    static final String CALLS_METRIC = "library.service.calls";
+
+    private final LoggerProvider loggerProvider;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Method, MethodTrace> traces = new ConcurrentHashMap<>();
+
+    ServiceTraceRegistry(LoggerProvider loggerProvider, MeterRegistry meterRegistry) {
+        this.loggerProvider = loggerProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    MethodTrace get(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodTrace trace = traces.get(method);
+        return trace != null ? trace : traces.computeIfAbsent(method, this::newTrace);
+    }
+
+    public List<MethodLatencyDTO> getLatencies() {
+        return traces.values().stream()
+                .map(MethodTrace::toLatencyDTO)
+                .sorted(Comparator.comparing(MethodLatencyDTO::method))
+                .toList();
+    }
+
+    private MethodTrace newTrace(Method method) {
+        Class<?> type = method.getDeclaringClass();
+        return new MethodTrace(
+                loggerProvider.getLogger(type),
+                type.getSimpleName() + "." + method.getName(),
+                timer(type, method, "SUCCESS"),
+                timer(type, method, "FAILURE"));
+    }
+
+    private Timer timer(Class<?> type, Method method, String outcome) {
+        return Timer.builder(CALLS_METRIC)
+                .description("Service method calls")
+                .tag("class", type.getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static final class MethodTrace {
+        private final Logger logger;
+        private final String name;
+        private final Timer successes;
+        private final Timer failures;
+
+        private MethodTrace(Logger logger, String name, Timer successes, Timer failures) {
+            this.logger = logger;
+            this.name = name;
+            this.successes = successes;
+            this.failures = failures;
+        }
+
+        Logger logger() {
+            return logger;
+        }
+
+        String name() {
+            return name;
+        }
+
+        void record(long elapsedNanos, boolean failed) {
+            (failed ? failures : successes).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private MethodLatencyDTO toLatencyDTO() {
+            long count = successes.count() + failures.count();
+            double totalMillis = successes.totalTime(TimeUnit.MILLISECONDS) + failures.totalTime(TimeUnit.MILLISECONDS);
+            double maxMillis = Math.max(successes.max(TimeUnit.MILLISECONDS), failures.max(TimeUnit.MILLISECONDS));
+            return new MethodLatencyDTO(name, count, failures.count(), count == 0 ? 0 : totalMillis / count, maxMillis);
+        }
+    }
+}
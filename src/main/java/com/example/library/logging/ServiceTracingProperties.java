@@ -0,0 +1,19 @@
+package com.example.library.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the service call tracing done by {@link BookServiceLoggingAspect}.
+ *
+ * @param sampleRate        share of successful calls traced at DEBUG level, from 0 to 1
+ * @param slowThreshold     calls taking at least this long are always logged at WARN level
+ * @param maxRenderedLength maximum length of a rendered argument list or result in the log line of a
+ *                          successful call
+ */
+@ConfigurationProperties("library.tracing")
+public record ServiceTracingProperties(@DefaultValue("0.01") double sampleRate,
+                                       @DefaultValue("500ms") Duration slowThreshold,
+                                       @DefaultValue("256") int maxRenderedLength) {}
@@ -0,0 +1,64 @@
+package com.example.library.logging;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Renders values for log lines lazily and within a length limit. The returned objects do no work until the
+ * logger actually formats the message, and a large collection is cut off after the first few elements
+ * instead of being converted to a string as a whole.
+ */
+final class TraceRenderer {
+    private static final String ELLIPSIS = "...";
+
+    private TraceRenderer() {
+    }
+
+    static Object lazy(Object value, int maxLength) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return render(value, maxLength);
+            }
+        };
+    }
+
+    static String render(Object value, int maxLength) {
+        StringBuilder builder = new StringBuilder(Math.min(maxLength, 64) + ELLIPSIS.length());
+        if (value instanceof Object[] array) {
+            appendElements(builder, Arrays.asList(array).iterator(), array.length, maxLength);
+        } else if (value instanceof Collection<?> collection) {
+            appendElements(builder, collection.iterator(), collection.size(), maxLength);
+        } else {
+            appendTruncated(builder, String.valueOf(value), maxLength);
+        }
+        return builder.toString();
+    }
+
+    private static void appendElements(StringBuilder builder, Iterator<?> elements, int size, int maxLength) {
+        builder.append('[');
+        int rendered = 0;
+        while (elements.hasNext()) {
+            if (rendered > 0) {
+                builder.append(", ");
+            }
+            if (builder.length() >= maxLength) {
+                builder.append(ELLIPSIS).append(" (").append(size).append(" items)");
+                break;
+            }
+            appendTruncated(builder, String.valueOf(elements.next()), maxLength);
+            rendered++;
+        }
+        builder.append(']');
+    }
+
+    private static void appendTruncated(StringBuilder builder, String value, int maxLength) {
+        int available = Math.max(maxLength - builder.length(), 0);
+        if (value.length() <= available) {
+            builder.append(value);
+        } else {
+            builder.append(value, 0, available).append(ELLIPSIS);
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.example.library.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Objects;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_book_author_title", columnNames = {"book_author", "book_title"}))
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     @Column(name = "book_id")
     private Long id;
-    @Column(name = "book_title", unique = true, nullable = false)
+    @Column(name = "book_title", nullable = false)
     private String title;
     @Column(name = "book_author", nullable = false)
     private String author;
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "book_version", nullable = false)
+    private Long version;
 
     public Book() {
     }
@@ -24,6 +31,13 @@ public class Book {
         this.author = author;
     }
 
+    public Book(Long id, String title, String author, Long version) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.version = version;
+    }
+
     public Book(String title, String author) {
         this.title = title;
         this.author = author;
@@ -53,15 +67,23 @@ public class Book {
         this.author = author;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof Book book)) return false;
-        return Objects.equals(getId(), book.getId()) && Objects.equals(getTitle(), book.getTitle()) && Objects.equals(getAuthor(), book.getAuthor());
+        return Objects.equals(getId(), book.getId()) && Objects.equals(getTitle(), book.getTitle()) && Objects.equals(getAuthor(), book.getAuthor()) && Objects.equals(getVersion(), book.getVersion());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getId(), getTitle(), getAuthor());
+        return Objects.hash(getId(), getTitle(), getAuthor(), getVersion());
     }
 
     @Override
@@ -70,6 +92,7 @@ public class Book {
         sb.append("id=").append(id);
         sb.append(", title='").append(title).append('\'');
         sb.append(", author='").append(author).append('\'');
+        sb.append(", version=").append(version);
         sb.append('}');
         return sb.toString();
     }
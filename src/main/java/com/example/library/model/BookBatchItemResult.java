@@ -0,0 +1,42 @@
+package com.example.library.model;
+
+import com.example.library.exception.FieldErrorResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a single item of a batch request.")
+public record BookBatchItemResult(@Schema(description = "Position of the item in the request", example = "0")
+                                  int index,
+                                  @Schema(description = "What happened to the item", example = "CREATED")
+                                  BookBatchItemStatus status,
+                                  @Schema(description = "The resulting book, if the item was applied")
+                                  BookDTO book,
+                                  @Schema(description = "Why the item was not applied", example = "Book already exists")
+                                  String message,
+                                  @Schema(description = "Field-specific validation errors of an invalid item")
+                                  List<FieldErrorResponse> fieldErrors) {
+    public static BookBatchItemResult created(int index, BookDTO book) {
+        return new BookBatchItemResult(index, BookBatchItemStatus.CREATED, book, null, List.of());
+    }
+
+    public static BookBatchItemResult updated(int index, BookDTO book) {
+        return new BookBatchItemResult(index, BookBatchItemStatus.UPDATED, book, null, List.of());
+    }
+
+    public static BookBatchItemResult duplicate(int index, String message) {
+        return new BookBatchItemResult(index, BookBatchItemStatus.DUPLICATE, null, message, List.of());
+    }
+
+    public static BookBatchItemResult notFound(int index) {
+        return new BookBatchItemResult(index, BookBatchItemStatus.NOT_FOUND, null, "Book not found.", List.of());
+    }
+
+    public static BookBatchItemResult modified(int index) {
+        return new BookBatchItemResult(index, BookBatchItemStatus.MODIFIED, null, "Book was modified by another request.", List.of());
+    }
+
+    public static BookBatchItemResult invalid(int index, List<FieldErrorResponse> fieldErrors) {
+        return new BookBatchItemResult(index, BookBatchItemStatus.INVALID, null, "Validation failed", fieldErrors);
+    }
+}
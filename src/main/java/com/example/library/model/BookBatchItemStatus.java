@@ -0,0 +1,10 @@
+package com.example.library.model;
+
+public enum BookBatchItemStatus {
+    CREATED,
+    UPDATED,
+    DUPLICATE,
+    NOT_FOUND,
+    MODIFIED,
+    INVALID
+}
@@ -0,0 +1,7 @@
+package com.example.library.model;
+
+public enum BookChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
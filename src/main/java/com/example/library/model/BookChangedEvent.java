@@ -0,0 +1,26 @@
+package com.example.library.model;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by the service layer for every committed change of the catalog. {@code books} holds the new
+ * state of created and updated books; for deletions only {@code ids} is filled.
+ */
+public record BookChangedEvent(BookChangeType type, List<Long> ids, List<BookDTO> books) {
+    public static BookChangedEvent created(List<BookDTO> books) {
+        return new BookChangedEvent(BookChangeType.CREATED, books.stream().map(BookDTO::id).toList(), books);
+    }
+
+    public static BookChangedEvent updated(BookDTO book) {
+        return new BookChangedEvent(BookChangeType.UPDATED, List.of(book.id()), List.of(book));
+    }
+
+    public static BookChangedEvent updated(List<BookDTO> books) {
+        return new BookChangedEvent(BookChangeType.UPDATED, books.stream().map(BookDTO::id).toList(), books);
+    }
+
+    public static BookChangedEvent deleted(Collection<Long> ids) {
+        return new BookChangedEvent(BookChangeType.DELETED, List.copyOf(ids), List.of());
+    }
+}
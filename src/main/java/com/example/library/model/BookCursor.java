@@ -0,0 +1,48 @@
+package com.example.library.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position right after the last book of a page: the sort key it was read with, the book's sort value and its ID.
+ * Clients get it as an opaque token, so the next page is located without reading that book again and paging
+ * goes on even if it has been deleted in the meantime.
+ *
+ * @param value the book's title or author, null when sorted by ID
+ */
+public record BookCursor(BookSortKey sortKey, long id, String value) {
+    private static final String INVALID = "Invalid cursor '%s'. Pass 'nextCursor' of the previous page as 'after'";
+
+    public static BookCursor after(BookDTO book, BookSortKey sortKey) {
+        String value = switch (sortKey) {
+            case ID     -> null;
+            case TITLE  -> book.title();
+            case AUTHOR -> book.author();
+        };
+        return new BookCursor(sortKey, book.id(), value);
+    }
+
+    /**
+     * Reads a token made by {@link #encode()}. A token that is malformed or was issued for another sort key is
+     * rejected with {@link IllegalArgumentException}.
+     */
+    public static BookCursor decode(String token, BookSortKey sortKey) {
+        String[] parts;
+        long id;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            id = Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(String.format(INVALID, token));
+        }
+        if (!parts[0].equals(sortKey.property()) || (sortKey == BookSortKey.ID) != (parts.length == 2)) {
+            throw new IllegalArgumentException(String.format(INVALID, token));
+        }
+        return new BookCursor(sortKey, id, sortKey == BookSortKey.ID ? null : parts[2]);
+    }
+
+    public String encode() {
+        String plain = sortKey.property() + ":" + id + (value == null ? "" : ":" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -11,8 +11,10 @@ public record BookDTO(@NotNull(message = "Id must not be empty!")
                       @Schema(description = "The title of the book", example = "Sherlock Holmes")
                       @NotBlank(message = "Title must not be empty!") String title,
                       @Schema(description = "The author of the book", example = "Arthur Conan Doyle")
-                      @NotBlank(message = "Author must not be empty!") String author) implements BookInput {
+                      @NotBlank(message = "Author must not be empty!") String author,
+                      @Schema(description = "Version of the book, incremented on every change", example = "0")
+                      Long version) implements BookInput {
     public static BookDTO from(Book book) {
-        return new BookDTO(book.getId(), book.getTitle(), book.getAuthor());
+        return new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getVersion());
     }
 }
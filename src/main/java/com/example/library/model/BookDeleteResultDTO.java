@@ -0,0 +1,7 @@
+package com.example.library.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a bulk delete.")
+public record BookDeleteResultDTO(@Schema(description = "Number of books that were deleted", example = "3")
+                                  int deleted) {}
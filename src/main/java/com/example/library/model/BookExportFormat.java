@@ -0,0 +1,33 @@
+package com.example.library.model;
+
+import java.util.Locale;
+
+public enum BookExportFormat {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String mediaType;
+
+    BookExportFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public static BookExportFormat from(String value) {
+        for (BookExportFormat format : values()) {
+            if (format.extension.equals(value.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown export format '%s'. Expected one of: ndjson, csv", value));
+    }
+}
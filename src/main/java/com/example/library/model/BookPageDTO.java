@@ -0,0 +1,13 @@
+package com.example.library.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A single page of books fetched with keyset pagination.")
+public record BookPageDTO(@Schema(description = "Books on this page, in the requested order")
+                          List<BookDTO> items,
+                          @Schema(description = "Opaque token to pass as 'after' to fetch the next page, null on the last page", example = "dGl0bGU6NDI6V2FyIGFuZCBQZWFjZQ")
+                          String nextCursor,
+                          @Schema(description = "Approximate number of books, taken from database statistics", example = "1000000")
+                          long approximateTotal) {}
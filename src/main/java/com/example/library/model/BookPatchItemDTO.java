@@ -0,0 +1,12 @@
+package com.example.library.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Partial update of one book in a batch.")
+public record BookPatchItemDTO(@Schema(description = "ID of the book to update", example = "1")
+                               Long id,
+                               @Schema(description = "Version the change is based on; if set, the item is rejected when the book has changed since",
+                                       example = "3")
+                               Long version,
+                               @Schema(description = "Fields to update; blank fields are left unchanged")
+                               BookPatchDTO patch) {}
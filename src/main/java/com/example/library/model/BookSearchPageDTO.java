@@ -0,0 +1,15 @@
+package com.example.library.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A single page of search results, best matches first.")
+public record BookSearchPageDTO(@Schema(description = "Matching books on this page, ordered by relevance")
+                                List<BookDTO> items,
+                                @Schema(description = "Zero-based number of this page", example = "0")
+                                int page,
+                                @Schema(description = "Requested page size", example = "20")
+                                int size,
+                                @Schema(description = "Whether there is at least one more page of results", example = "true")
+                                boolean hasNext) {}
@@ -0,0 +1,28 @@
+package com.example.library.model;
+
+import java.util.Locale;
+
+public enum BookSortKey {
+    ID("id"),
+    TITLE("title"),
+    AUTHOR("author");
+
+    private final String property;
+
+    BookSortKey(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public static BookSortKey from(String value) {
+        for (BookSortKey key : values()) {
+            if (key.property.equals(value.toLowerCase(Locale.ROOT))) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown sort key '%s'. Expected one of: id, title, author", value));
+    }
+}
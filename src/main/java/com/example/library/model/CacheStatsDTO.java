@@ -0,0 +1,17 @@
+package com.example.library.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Usage statistics of an in-memory cache.")
+public record CacheStatsDTO(@Schema(description = "Name of the cache", example = "books")
+                            String name,
+                            @Schema(description = "Approximate number of cached entries", example = "1200")
+                            long size,
+                            @Schema(description = "Number of lookups served from the cache", example = "9500")
+                            long hitCount,
+                            @Schema(description = "Number of lookups that went to the database", example = "500")
+                            long missCount,
+                            @Schema(description = "Share of lookups served from the cache", example = "0.95")
+                            double hitRate,
+                            @Schema(description = "Number of entries evicted by size or TTL", example = "40")
+                            long evictionCount) {}
@@ -0,0 +1,15 @@
+package com.example.library.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Latency of a traced service method since application start.")
+public record MethodLatencyDTO(@Schema(description = "Traced method", example = "BookService.getBookById")
+                               String method,
+                               @Schema(description = "Number of calls", example = "12000")
+                               long calls,
+                               @Schema(description = "Number of calls that threw an exception", example = "15")
+                               long failures,
+                               @Schema(description = "Mean call duration in milliseconds", example = "0.42")
+                               double meanMillis,
+                               @Schema(description = "Longest call duration in milliseconds within the last few minutes", example = "37.5")
+                               double maxMillis) {}
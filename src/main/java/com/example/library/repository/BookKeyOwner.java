@@ -0,0 +1,12 @@
+package com.example.library.repository;
+
+/**
+ * ID of the book that has an author and title pair, see {@link BookRepository#findKeyOwners}.
+ */
+public interface BookKeyOwner {
+    Long getId();
+
+    String getAuthor();
+
+    String getTitle();
+}
@@ -1,12 +1,135 @@
 package com.example.library.repository;
 
 import com.example.library.model.Book;
+import com.example.library.model.BookDTO;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
     Optional<Book> findByAuthorAndTitle(String author, String title);
+
+    /**
+     * Reads the book straight into a {@link BookDTO}, without creating a managed entity and its snapshot for
+     * dirty checking. Used by the read endpoints, which never modify what they load.
+     */
+    @Query("select new com.example.library.model.BookDTO(b.id, b.title, b.author, b.version) from Book b where b.id = :id")
+    Optional<BookDTO> findDtoById(@Param("id") Long id);
+
+    /**
+     * Returns the books that have one of the author and title pairs at the same positions of the two arrays,
+     * reduced to their IDs and keys. Only exact pairs are matched, through the {@code uk_book_author_title} index.
+     */
+    @Query(value = """
+            SELECT b.book_id AS id, b.book_author AS author, b.book_title AS title
+            FROM book b
+            JOIN unnest(CAST(:authors AS varchar[]), CAST(:titles AS varchar[])) AS t(author, title)
+              ON b.book_author = t.author AND b.book_title = t.title""", nativeQuery = true)
+    List<BookKeyOwner> findKeyOwners(@Param("authors") String[] authors, @Param("titles") String[] titles);
+
+    /**
+     * Loads and row-locks the books in ID order, so concurrent batches touching the same books wait for each
+     * other instead of deadlocking, and the loaded versions hold until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id in :ids order by b.id")
+    List<Book> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds books whose title or author match the query either as full-text words or, to tolerate typos, by
+     * trigram word similarity. Both predicates are served by the GIN indexes from the V1 migration, so the
+     * query must repeat the indexed expressions exactly.
+     */
+    @Query(value = """
+            SELECT b.book_id AS id, b.book_title AS title, b.book_author AS author, b.book_version AS version
+            FROM book b
+            WHERE to_tsvector('simple', b.book_title || ' ' || b.book_author) @@ websearch_to_tsquery('simple', :q)
+               OR :q <% (b.book_title || ' ' || b.book_author)
+            ORDER BY ts_rank(to_tsvector('simple', b.book_title || ' ' || b.book_author), websearch_to_tsquery('simple', :q))
+                     + word_similarity(:q, b.book_title || ' ' || b.book_author) DESC,
+                     b.book_id
+            LIMIT :limit OFFSET :offset""", nativeQuery = true)
+    List<BookDTO> search(@Param("q") String q, @Param("limit") int limit, @Param("offset") long offset);
+
+    /**
+     * Inserts the book in a single statement unless it violates a unique constraint,
+     * in which case nothing is inserted and an empty result is returned.
+     */
+    @Query(value = """
+            INSERT INTO book (book_id, book_title, book_author, book_version)
+            VALUES (nextval('book_seq'), :title, :author, 0)
+            ON CONFLICT DO NOTHING
+            RETURNING *""", nativeQuery = true)
+    Optional<Book> insertIfAbsent(@Param("title") String title, @Param("author") String author);
+
+    /**
+     * Inserts every author and title pair at the same positions of the two arrays in one statement, skipping
+     * pairs that violate a unique constraint, and returns the inserted rows in no particular order. Rows are
+     * inserted in author and title order, so concurrent batches with overlapping books wait for each other
+     * instead of deadlocking.
+     */
+    @Query(value = """
+            INSERT INTO book (book_id, book_title, book_author, book_version)
+            SELECT nextval('book_seq'), t.title, t.author, 0
+            FROM unnest(CAST(:titles AS varchar[]), CAST(:authors AS varchar[])) AS t(title, author)
+            ORDER BY t.author, t.title
+            ON CONFLICT DO NOTHING
+            RETURNING *""", nativeQuery = true)
+    List<Book> insertAllIfAbsent(@Param("titles") String[] titles, @Param("authors") String[] authors);
+
+    @Query(value = "SELECT CAST(GREATEST(reltuples, 0) AS bigint) FROM pg_class WHERE oid = CAST('book' AS regclass)",
+            nativeQuery = true)
+    long approximateCount();
+
+    /**
+     * Updates both columns in place and returns the new row, without loading the entity first.
+     * If {@code versions} is not null, the row is only updated while it still has one of those versions.
+     */
+    @Query(value = """
+            UPDATE book SET book_title = :title, book_author = :author, book_version = book_version + 1
+            WHERE book_id = :id AND (CAST(:versions AS bigint[]) IS NULL OR book_version = ANY(CAST(:versions AS bigint[])))
+            RETURNING *""", nativeQuery = true)
+    Optional<Book> updateTitleAndAuthor(@Param("id") Long id, @Param("title") String title,
+                                        @Param("author") String author, @Param("versions") Long[] versions);
+
+    @Query(value = """
+            UPDATE book SET book_title = :title, book_version = book_version + 1
+            WHERE book_id = :id AND (CAST(:versions AS bigint[]) IS NULL OR book_version = ANY(CAST(:versions AS bigint[])))
+            RETURNING *""", nativeQuery = true)
+    Optional<Book> updateTitle(@Param("id") Long id, @Param("title") String title, @Param("versions") Long[] versions);
+
+    @Query(value = """
+            UPDATE book SET book_author = :author, book_version = book_version + 1
+            WHERE book_id = :id AND (CAST(:versions AS bigint[]) IS NULL OR book_version = ANY(CAST(:versions AS bigint[])))
+            RETURNING *""", nativeQuery = true)
+    Optional<Book> updateAuthor(@Param("id") Long id, @Param("author") String author, @Param("versions") Long[] versions);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM book
+            WHERE book_id = :id AND (CAST(:versions AS bigint[]) IS NULL OR book_version = ANY(CAST(:versions AS bigint[])))""",
+            nativeQuery = true)
+    int deleteDirectlyById(@Param("id") Long id, @Param("versions") Long[] versions);
+
+    @Query(value = "DELETE FROM book WHERE book_id IN (:ids) RETURNING book_id", nativeQuery = true)
+    List<Long> deleteDirectlyByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the number of changes counted so far: a fresh sequence keeps {@code last_value} at its start
+     * value until the first {@code nextval}, which only sets {@code is_called}.
+     */
+    @Query(value = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM book_change_seq", nativeQuery = true)
+    long currentChangeCounter();
+
+    @Query(value = "SELECT nextval('book_change_seq')", nativeQuery = true)
+    long incrementChangeCounter();
 }
@@ -0,0 +1,25 @@
+package com.example.library.repository;
+
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookDTO;
+import com.example.library.model.BookSortKey;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface BookRepositoryCustom {
+    /**
+     * Returns up to {@code limit} books ordered by {@code sortKey} and then by id, starting right after
+     * the position {@code after} (from the start if null). The cursor carries the sort value, so the page is
+     * located through the index without an OFFSET scan or a lookup of the previous row. Rows are read straight
+     * into DTOs and never enter the persistence context.
+     */
+    List<BookDTO> findPage(BookCursor after, BookSortKey sortKey, Sort.Direction direction, int limit);
+
+    /**
+     * Sets the title and author at the same positions of the three arrays on the books with those IDs and returns
+     * the updated books in no particular order. A book whose new author and title a concurrent transaction has
+     * taken is left unchanged and is missing from the result, instead of failing the caller's transaction.
+     */
+    List<BookDTO> updateAllIfAbsent(Long[] ids, String[] titles, String[] authors);
+}
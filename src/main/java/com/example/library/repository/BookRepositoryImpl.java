@@ -0,0 +1,112 @@
+package com.example.library.repository;
+
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookDTO;
+import com.example.library.model.BookSortKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+    private static final String UPDATE_ALL = """
+            UPDATE book b SET book_title = t.title, book_author = t.author, book_version = b.book_version + 1
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS varchar[]), CAST(? AS varchar[])) AS t(id, title, author)
+            WHERE b.book_id = t.id
+            RETURNING b.book_id, b.book_title, b.book_author, b.book_version""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<BookDTO> findPage(BookCursor after, BookSortKey sortKey, Sort.Direction direction, int limit) {
+        String order = direction.isAscending() ? "asc" : "desc";
+        String comparison = direction.isAscending() ? ">" : "<";
+        StringBuilder hql = new StringBuilder(
+                "select new com.example.library.model.BookDTO(b.id, b.title, b.author, b.version) from Book b");
+        if (after != null) {
+            // A row-value comparison is a seek on the (key, id) index; the equivalent
+            // "key > v or (key = v and id > k)" is only a filter, applied to every row before the cursor.
+            hql.append(sortKey == BookSortKey.ID
+                    ? " where b.id " + comparison + " :afterId"
+                    : " where (b." + sortKey.property() + ", b.id) " + comparison + " (:afterValue, :afterId)");
+        }
+        hql.append(" order by ");
+        if (sortKey != BookSortKey.ID) {
+            hql.append("b.").append(sortKey.property()).append(' ').append(order).append(", ");
+        }
+        hql.append("b.id ").append(order);
+
+        TypedQuery<BookDTO> query = entityManager.createQuery(hql.toString(), BookDTO.class);
+        if (after != null) {
+            query.setParameter("afterId", after.id());
+            if (sortKey != BookSortKey.ID) {
+                query.setParameter("afterValue", after.value());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Updates all books with one statement. If a concurrent transaction took one of the new author and title
+     * pairs, that statement is undone and the books are updated one by one, skipping the ones that collide.
+     */
+    @Override
+    public List<BookDTO> updateAllIfAbsent(Long[] ids, String[] titles, String[] authors) {
+        try {
+            return updateAll(ids, titles, authors);
+        } catch (DuplicateKeyException e) {
+            List<BookDTO> updated = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                try {
+                    updated.addAll(updateAll(new Long[]{ids[i]}, new String[]{titles[i]}, new String[]{authors[i]}));
+                } catch (DuplicateKeyException ignored) {
+                    // the pair was taken after the caller checked it
+                }
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * Runs the update behind a savepoint, so a unique violation only undoes this statement. It goes through JDBC
+     * on the transaction's connection: Hibernate would mark the whole transaction rollback-only on any failure.
+     */
+    private List<BookDTO> updateAll(Long[] ids, String[] titles, String[] authors) {
+        return jdbcTemplate.execute((ConnectionCallback<List<BookDTO>>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_ALL)) {
+                statement.setArray(1, connection.createArrayOf("bigint", ids));
+                statement.setArray(2, connection.createArrayOf("varchar", titles));
+                statement.setArray(3, connection.createArrayOf("varchar", authors));
+                List<BookDTO> updated = new ArrayList<>(ids.length);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        updated.add(new BookDTO(rows.getLong(1), rows.getString(2), rows.getString(3), rows.getLong(4)));
+                    }
+                }
+                connection.releaseSavepoint(savepoint);
+                return updated;
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+        });
+    }
+}
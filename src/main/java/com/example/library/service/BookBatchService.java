@@ -0,0 +1,164 @@
+package com.example.library.service;
+
+import com.example.library.common.BookKey;
+import com.example.library.common.BookValidation;
+import com.example.library.config.CacheConfig;
+import com.example.library.exception.FieldErrorResponse;
+import com.example.library.model.*;
+import com.example.library.repository.BookRepository;
+import jakarta.validation.Validator;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Applies many book changes in one transaction and reports the outcome of every item, so a single bad
+ * item does not force the client to retry the whole request.
+ */
+@Transactional(readOnly = true)
+@Service
+public class BookBatchService {
+    private final BookRepository bookRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookBatchService(BookRepository bookRepository, Validator validator, ApplicationEventPublisher eventPublisher) {
+        this.bookRepository = bookRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Inserts all valid, non-duplicate books. A book is a duplicate if another one with the same author and
+     * title exists or appears earlier in the batch. The books are inserted with a single
+     * {@code INSERT ... ON CONFLICT DO NOTHING} statement, so a book that a concurrent request inserts first is
+     * reported as a duplicate instead of failing the whole batch.
+     */
+    @Transactional
+    public List<BookBatchItemResult> addBooks(List<BookPostDTO> books) {
+        BookBatchItemResult[] results = new BookBatchItemResult[books.size()];
+
+        Map<BookKey, Integer> indexesByKey = new LinkedHashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            List<FieldErrorResponse> fieldErrors = BookValidation.validate(validator, books.get(i));
+            BookPostDTO book = books.get(i);
+            if (!fieldErrors.isEmpty()) {
+                results[i] = BookBatchItemResult.invalid(i, fieldErrors);
+            } else if (indexesByKey.putIfAbsent(new BookKey(book.author(), book.title()), i) != null) {
+                results[i] = BookBatchItemResult.duplicate(i, "This book is already exists in database");
+            }
+        }
+
+        List<BookDTO> createdBooks = new ArrayList<>(indexesByKey.size());
+        if (!indexesByKey.isEmpty()) {
+            List<String> titles = new ArrayList<>(indexesByKey.size());
+            List<String> authors = new ArrayList<>(indexesByKey.size());
+            indexesByKey.keySet().forEach(key -> {
+                titles.add(key.title());
+                authors.add(key.author());
+            });
+            for (Book savedBook : bookRepository.insertAllIfAbsent(titles.toArray(String[]::new), authors.toArray(String[]::new))) {
+                int index = indexesByKey.get(BookKey.of(savedBook));
+                BookDTO createdBook = BookMapper.toBookDTO(savedBook);
+                createdBooks.add(createdBook);
+                results[index] = BookBatchItemResult.created(index, createdBook);
+            }
+        }
+        for (int index : indexesByKey.values()) {
+            if (results[index] == null) {
+                results[index] = BookBatchItemResult.duplicate(index, "This book is already exists in database");
+            }
+        }
+        if (!createdBooks.isEmpty()) {
+            eventPublisher.publishEvent(BookChangedEvent.created(createdBooks));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies partial updates with the same blank-field semantics as {@link BookService#patchBook}. The books
+     * are loaded and locked with one query, the owners of the new author and title pairs are looked up with one
+     * more, and all changes are written with a single {@code UPDATE ... FROM unnest(...)} statement. A change
+     * is reported as a duplicate if its author and title belong to any other book before the batch, even one
+     * the batch renames, because the updates are not applied in an order that would free the pair first, and
+     * also if a concurrent request takes the pair before the update.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)
+    public List<BookBatchItemResult> patchBooks(List<BookPatchItemDTO> items) {
+        BookBatchItemResult[] results = new BookBatchItemResult[items.size()];
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            List<FieldErrorResponse> fieldErrors = BookValidation.validate(items.get(i), ids);
+            if (!fieldErrors.isEmpty()) {
+                results[i] = BookBatchItemResult.invalid(i, fieldErrors);
+            }
+        }
+
+        Map<Long, Book> booksById = new HashMap<>();
+        if (!ids.isEmpty()) {
+            bookRepository.findAllForUpdateByIdIn(ids).forEach(book -> booksById.put(book.getId(), book));
+        }
+
+        Map<Integer, BookKey> newKeys = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) continue;
+            BookPatchItemDTO item = items.get(i);
+            Book book = booksById.get(item.id());
+            if (book == null) {
+                results[i] = BookBatchItemResult.notFound(i);
+            } else if (item.version() != null && !item.version().equals(book.getVersion())) {
+                results[i] = BookBatchItemResult.modified(i);
+            } else {
+                newKeys.put(i, BookKey.of(book, item.patch()));
+            }
+        }
+
+        Map<BookKey, Long> takenKeys = new HashMap<>();
+        if (!newKeys.isEmpty()) {
+            Set<BookKey> keys = new HashSet<>(newKeys.values());
+            bookRepository.findKeyOwners(
+                            keys.stream().map(BookKey::author).toArray(String[]::new),
+                            keys.stream().map(BookKey::title).toArray(String[]::new))
+                    .forEach(owner -> takenKeys.put(new BookKey(owner.getAuthor(), owner.getTitle()), owner.getId()));
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Long> patchedIds = new ArrayList<>();
+        List<String> titles = new ArrayList<>();
+        List<String> authors = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BookKey key = newKeys.get(i);
+            if (key == null) continue;
+            Long id = items.get(i).id();
+            Long ownerId = takenKeys.putIfAbsent(key, id);
+            if (ownerId != null && !ownerId.equals(id)) {
+                results[i] = BookBatchItemResult.duplicate(i, "This book is already exists in database");
+                continue;
+            }
+            indexes.add(i);
+            patchedIds.add(id);
+            titles.add(key.title());
+            authors.add(key.author());
+        }
+
+        List<BookDTO> updatedBooks = patchedIds.isEmpty() ? List.of() : bookRepository.updateAllIfAbsent(
+                patchedIds.toArray(Long[]::new), titles.toArray(String[]::new), authors.toArray(String[]::new));
+        Map<Long, BookDTO> updatedById = new HashMap<>();
+        updatedBooks.forEach(book -> updatedById.put(book.id(), book));
+        for (int index : indexes) {
+            BookDTO updatedBook = updatedById.get(items.get(index).id());
+            results[index] = updatedBook != null
+                    ? BookBatchItemResult.updated(index, updatedBook)
+                    : BookBatchItemResult.duplicate(index, "This book is already exists in database");
+        }
+        if (!updatedBooks.isEmpty()) {
+            eventPublisher.publishEvent(BookChangedEvent.updated(updatedBooks));
+        }
+        return Arrays.asList(results);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.library.service;
+
+import com.example.library.model.BookChangedEvent;
+import com.example.library.repository.BookRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bumps the catalog change counter once the change is committed. Doing it after commit guarantees that a
+ * reader who sees the new counter value also sees the new data, so a collection ETag is never attached to
+ * stale content. It runs synchronously, so the writer's own next read already gets a fresh ETag.
+ */
+@Component
+public class BookChangeCounterListener {
+    private final BookRepository bookRepository;
+
+    public BookChangeCounterListener(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        bookRepository.incrementChangeCounter();
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.library.service;
+
+import com.example.library.config.BookChangeFeedProperties;
+import com.example.library.model.BookChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams committed catalog changes to Server-Sent Events subscribers. Changes are appended to a bounded ring
+ * buffer after commit, which is all the write path pays for; every subscriber is served by its own thread
+ * that follows the buffer at its own pace, up to the configured number of subscribers; further ones are
+ * rejected with {@link RejectedExecutionException}. A subscriber that falls behind by more than the buffer is
+ * disconnected, and a subscriber that reconnects with {@code Last-Event-ID} continues where it left off as long
+ * as that change is still buffered. Otherwise it first receives a {@code reset} event and should reload the
+ * books it keeps.
+ * <p>
+ * Event ids are {@code <start time>-<sequence>}, so ids handed out before a restart are recognised as unknown
+ * instead of being confused with the new sequence.
+ */
+@Component
+public class BookChangeFeed {
+    private static final String RESET_EVENT = "reset";
+
+    private final BookChangeFeedProperties properties;
+    private final String epoch = Long.toString(System.currentTimeMillis());
+    private final Entry[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // Platform threads: SseEmitter.send writes to the socket inside a synchronized method, which on Java 21 would pin
+    // the carrier of a virtual thread for as long as a slow client keeps the write blocked.
+    private final ThreadFactory subscriberThreads = Thread.ofPlatform().daemon().name("book-change-feed-", 0).factory();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter droppedSubscribers;
+    private long lastSequence;
+
+    public BookChangeFeed(BookChangeFeedProperties properties, MeterRegistry meterRegistry) {
+        if (properties.bufferSize() < 1) {
+            throw new IllegalArgumentException("library.books.stream.buffer-size must be positive");
+        }
+        if (properties.maxSubscribers() < 1) {
+            throw new IllegalArgumentException("library.books.stream.max-subscribers must be positive");
+        }
+        this.properties = properties;
+        this.ring = new Entry[properties.bufferSize()];
+        Gauge.builder("library.books.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open subscriptions to the book change stream")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("library.books.stream.dropped")
+                .description("Subscribers disconnected because they fell behind the change buffer")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        lock.lock();
+        try {
+            lastSequence++;
+            ring[(int) (lastSequence % ring.length)] = new Entry(lastSequence, event);
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(properties.timeout().toMillis()));
+    }
+
+    /**
+     * Starts streaming the changes after {@code lastEventId} into the given emitter; without an id, only changes
+     * committed from now on are sent.
+     */
+    public SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        if (subscribers.incrementAndGet() > properties.maxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new RejectedExecutionException("Too many subscribers of the book change stream, retry later");
+        }
+        Subscription subscription = new Subscription(emitter);
+        emitter.onCompletion(subscription::close);
+        emitter.onError(error -> subscription.close());
+        emitter.onTimeout(emitter::complete);
+
+        lock.lock();
+        try {
+            Long resumeFrom = lastEventId == null ? Long.valueOf(lastSequence) : parseSequence(lastEventId);
+            subscription.reset = resumeFrom == null || resumeFrom < oldestSequence() - 1 || resumeFrom > lastSequence;
+            subscription.position = subscription.reset ? lastSequence : resumeFrom;
+        } finally {
+            lock.unlock();
+        }
+        subscriberThreads.newThread(subscription::run).start();
+        return emitter;
+    }
+
+    private Long parseSequence(String eventId) {
+        int separator = eventId.indexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private long oldestSequence() {
+        return Math.max(1, lastSequence - ring.length + 1);
+    }
+
+    /**
+     * Waits up to the heartbeat interval for changes after {@code position} and returns them, or returns
+     * null if some of them have already been overwritten.
+     */
+    private List<Entry> changesAfter(long position) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = properties.heartbeat().toNanos();
+            while (lastSequence == position && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            if (position < oldestSequence() - 1) {
+                return null;
+            }
+            List<Entry> entries = new ArrayList<>((int) (lastSequence - position));
+            for (long sequence = position + 1; sequence <= lastSequence; sequence++) {
+                entries.add(ring[(int) (sequence % ring.length)]);
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private record Entry(long sequence, BookChangedEvent event) {}
+
+    private class Subscription {
+        private final SseEmitter emitter;
+        private volatile boolean closed;
+        private boolean reset;
+        private long position;
+
+        Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        void run() {
+            try {
+                if (reset) {
+                    emitter.send(SseEmitter.event().id(eventId(position)).name(RESET_EVENT).data(""));
+                } else {
+                    // Commits the response headers, so the client knows it is subscribed before the first change.
+                    emitter.send(SseEmitter.event().comment("subscribed"));
+                }
+                while (!closed) {
+                    List<Entry> entries = changesAfter(position);
+                    if (entries == null) {
+                        droppedSubscribers.increment();
+                        emitter.complete();
+                        return;
+                    }
+                    if (entries.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    for (Entry entry : entries) {
+                        emitter.send(SseEmitter.event()
+                                .id(eventId(entry.sequence()))
+                                .name(entry.event().type().name().toLowerCase(Locale.ROOT))
+                                .data(entry.event(), MediaType.APPLICATION_JSON));
+                        position = entry.sequence();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away or the emitter has already completed
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } finally {
+                subscribers.decrementAndGet();
+            }
+        }
+    }
+}
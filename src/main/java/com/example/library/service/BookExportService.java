@@ -0,0 +1,89 @@
+package com.example.library.service;
+
+import com.example.library.common.BookCsv;
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookDTO;
+import com.example.library.model.BookExportFormat;
+import com.example.library.model.BookSortKey;
+import com.example.library.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the whole catalog to an output stream in chunks read with keyset pagination. Each chunk is read in a
+ * short transaction of its own, so a slow client holds neither a pool connection nor an open transaction while
+ * it downloads, and memory use does not depend on the size of the table. Rows are read straight into DTOs.
+ * The export is not a snapshot: a book changed while it runs is written in the state its chunk was read in.
+ */
+@Service
+public class BookExportService {
+    public static final int CHUNK_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate chunkTransaction;
+
+    public BookExportService(BookRepository bookRepository, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setReadOnly(true);
+    }
+
+    public void exportBooks(BookExportFormat format, OutputStream outputStream) throws IOException {
+        switch (format) {
+            case NDJSON -> writeNdjson(outputStream);
+            case CSV    -> writeCsv(outputStream);
+        }
+    }
+
+    /**
+     * Reads the chunk after {@code after} (from the start if null); an empty list means the export is complete.
+     * Each chunk is read in a read-only transaction of its own, which returns the connection to the pool before
+     * the chunk is written, and lets chunks be served by a replica.
+     */
+    private List<BookDTO> nextChunk(List<BookDTO> after) {
+        if (after != null && after.size() < CHUNK_SIZE) {
+            return List.of();
+        }
+        BookCursor cursor = after == null ? null : BookCursor.after(after.getLast(), BookSortKey.ID);
+        return chunkTransaction.execute(status -> bookRepository.findPage(cursor, BookSortKey.ID, Sort.Direction.ASC, CHUNK_SIZE));
+    }
+
+    private void writeNdjson(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+        for (List<BookDTO> chunk = nextChunk(null); !chunk.isEmpty(); chunk = nextChunk(chunk)) {
+            for (BookDTO book : chunk) {
+                generator.writeObject(book);
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(BookCsv.HEADER);
+        for (List<BookDTO> chunk = nextChunk(null); !chunk.isEmpty(); chunk = nextChunk(chunk)) {
+            for (BookDTO book : chunk) {
+                writer.write(BookCsv.row(book));
+            }
+        }
+        writer.flush();
+    }
+}
@@ -5,10 +5,10 @@ import com.example.library.model.*;
 public class BookMapper {
     public static Book toBook(BookInput bookInput) {
         return switch (bookInput) {
-            case BookDTO(Long id, String title, String author)  -> new Book(id, title, author);
-            case BookPostDTO(String title, String author)       -> new Book(title, author);
-            case BookPatchDTO(String title, String author)      -> new Book(title, author);
-            case BookPutDTO(String title, String author)        -> new Book(title, author);
+            case BookDTO(Long id, String title, String author, Long version) -> new Book(id, title, author, version);
+            case BookPostDTO(String title, String author)                    -> new Book(title, author);
+            case BookPatchDTO(String title, String author)                   -> new Book(title, author);
+            case BookPutDTO(String title, String author)                     -> new Book(title, author);
         };
     }
 
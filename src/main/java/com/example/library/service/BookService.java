@@ -1,85 +1,143 @@
 package com.example.library.service;
 
+import com.example.library.common.BookValidation;
+import com.example.library.config.CacheConfig;
 import com.example.library.model.*;
 import com.example.library.repository.BookRepository;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Transactional(readOnly = true)
 @Service
 public class BookService {
     private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(BookMapper::toBookDTO)
+    public BookPageDTO getBooks(BookCursor after, BookSortKey sortKey, Sort.Direction direction, int limit) {
+        List<BookDTO> books = bookRepository.findPage(after, sortKey, direction, limit + 1);
+        List<BookDTO> items = books.stream()
+                .limit(limit)
+                .toList();
+        String nextCursor = books.size() > limit ? BookCursor.after(items.getLast(), sortKey).encode() : null;
+        return new BookPageDTO(items, nextCursor, bookRepository.approximateCount());
+    }
+
+    public BookSearchPageDTO searchBooks(String query, int page, int size) {
+        List<BookDTO> books = bookRepository.search(query.trim(), size + 1, (long) page * size);
+        List<BookDTO> items = books.stream()
+                .limit(size)
                 .toList();
+        return new BookSearchPageDTO(items, page, size, books.size() > size);
     }
 
+    /**
+     * Returns a counter that grows after every committed change of the catalog. It is read in a read-write
+     * transaction so that it comes from the primary: a standby replays sequences in steps of up to 32 values
+     * ahead, so a replica could report a value that the primary has not reached yet and answer 304 for a
+     * catalog that changes afterwards.
+     */
+    @Transactional
+    public long getChangeCounter() {
+        return bookRepository.currentChangeCounter();
+    }
+
+    /**
+     * Misses of the book cache are read in a read-write transaction, so they come from the primary: a row read
+     * from a lagging replica right after a change would stay in the cache until it expires.
+     */
+    @Transactional
+    @Cacheable(CacheConfig.BOOKS_CACHE)
     public BookDTO getBookById(Long id) {
-        return bookRepository.findById(id)
-                .map(BookMapper::toBookDTO)
+        return bookRepository.findDtoById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found."));
     }
 
     @Transactional
     public BookDTO addBook(BookPostDTO book) {
-        if (bookRepository.findByAuthorAndTitle(book.author(), book.title()).isPresent()) {
-            throw new EntityExistsException("This book is already exists in database");
+        BookDTO newBook = bookRepository.insertIfAbsent(book.title(), book.author())
+                .map(BookMapper::toBookDTO)
+                .orElseThrow(() -> new EntityExistsException("This book is already exists in database"));
+        eventPublisher.publishEvent(BookChangedEvent.created(List.of(newBook)));
+        return newBook;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
+    public void deleteBookById(Long id, List<Long> expectedVersions) {
+        if (bookRepository.deleteDirectlyById(id, versions(expectedVersions)) == 0) {
+            throw notFoundOrModified(id, expectedVersions);
         }
-        return BookMapper.toBookDTO(bookRepository.save(BookMapper.toBook(book)));
+        eventPublisher.publishEvent(BookChangedEvent.deleted(List.of(id)));
     }
 
     @Transactional
-    public void deleteBookById(Long id) {
-        if (bookRepository.existsById(id)) bookRepository.deleteById(id);
-        else throw new EntityNotFoundException("Book not found.");
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)
+    public BookDeleteResultDTO deleteBooksByIds(List<Long> ids) {
+        List<Long> deletedIds = bookRepository.deleteDirectlyByIdIn(ids);
+        if (!deletedIds.isEmpty()) {
+            eventPublisher.publishEvent(BookChangedEvent.deleted(deletedIds));
+        }
+        return new BookDeleteResultDTO(deletedIds.size());
     }
 
     @Transactional
-    public BookDTO updateBook(BookPutDTO book, Long id) {
-        return bookRepository.findById(id)
-                .map(existingBook -> {
-                    existingBook.setTitle(book.title());
-                    existingBook.setAuthor(book.author());
-                    Book updatedBook = bookRepository.save(existingBook);
-                    return BookMapper.toBookDTO(updatedBook);
-                })
-                .orElseThrow(() -> new EntityNotFoundException("Book not found."));
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
+    public BookDTO updateBook(BookPutDTO book, Long id, List<Long> expectedVersions) {
+        BookDTO updatedBook = bookRepository
+                .updateTitleAndAuthor(id, book.title(), book.author(), versions(expectedVersions))
+                .map(BookMapper::toBookDTO)
+                .orElseThrow(() -> notFoundOrModified(id, expectedVersions));
+        eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook));
+        return updatedBook;
     }
 
     @Transactional
-    public BookDTO patchBook(BookPatchDTO book, Long id) {
-        if (isBookPatchDTOEmpty(book)) {
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
+    public BookDTO patchBook(BookPatchDTO book, Long id, List<Long> expectedVersions) {
+        if (BookValidation.isBookPatchDTOEmpty(book)) {
             throw new IllegalArgumentException("Nothing to update");
         }
-        return bookRepository.findById(id)
-                .map(existingBook -> {
-                    if (StringUtils.isNotBlank(book.title())) {
-                        existingBook.setTitle(book.title());
-                    }
-                    if (StringUtils.isNotBlank(book.author())) {
-                        existingBook.setAuthor(book.author());
-                    }
-                    Book updatedBook = bookRepository.save(existingBook);
-                    return BookMapper.toBookDTO(updatedBook);
-                })
-                .orElseThrow(() -> new EntityNotFoundException("Book not found."));
+        boolean patchTitle = StringUtils.isNotBlank(book.title());
+        boolean patchAuthor = StringUtils.isNotBlank(book.author());
+        Optional<Book> patchedBook;
+        if (patchTitle && patchAuthor) {
+            patchedBook = bookRepository.updateTitleAndAuthor(id, book.title(), book.author(), versions(expectedVersions));
+        } else if (patchTitle) {
+            patchedBook = bookRepository.updateTitle(id, book.title(), versions(expectedVersions));
+        } else {
+            patchedBook = bookRepository.updateAuthor(id, book.author(), versions(expectedVersions));
+        }
+        BookDTO updatedBook = patchedBook
+                .map(BookMapper::toBookDTO)
+                .orElseThrow(() -> notFoundOrModified(id, expectedVersions));
+        eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook));
+        return updatedBook;
+    }
+
+    private RuntimeException notFoundOrModified(Long id, List<Long> expectedVersions) {
+        if (expectedVersions != null && bookRepository.existsById(id)) {
+            return new OptimisticLockException("Book was modified by another request.");
+        }
+        return new EntityNotFoundException("Book not found.");
     }
 
-    private boolean isBookPatchDTOEmpty(BookPatchDTO bookPatchDTO) {
-        if (bookPatchDTO == null) return true;
-        boolean isTitleEmpty = StringUtils.isBlank(bookPatchDTO.title());
-        boolean isAuthorEmpty = StringUtils.isBlank(bookPatchDTO.author());
-        return isTitleEmpty && isAuthorEmpty;
+    private static Long[] versions(List<Long> expectedVersions) {
+        return expectedVersions == null ? null : expectedVersions.toArray(Long[]::new);
     }
 }
@@ -0,0 +1,25 @@
+-- The book table as it was created by Hibernate's ddl-auto=update. Every statement is idempotent, so databases
+-- created before migrations were introduced are adopted by running this script against them (baseline version 0).
+
+-- Allocated in blocks of 50 by the Book entity (allocationSize), so batched inserts don't call nextval per row.
+CREATE SEQUENCE IF NOT EXISTS book_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS book
+(
+    book_id      bigint       NOT NULL PRIMARY KEY,
+    book_title   varchar(255) NOT NULL,
+    book_author  varchar(255) NOT NULL,
+    book_version bigint       NOT NULL DEFAULT 0,
+    -- Also serves findByAuthorAndTitle and lookups by author alone.
+    CONSTRAINT uk_book_author_title UNIQUE (book_author, book_title)
+);
+
+-- Bumped after every committed change of the book table; its value is the collection ETag of GET /books/.
+CREATE SEQUENCE IF NOT EXISTS book_change_seq;
+
+-- Search indexes for GET /books/search. The expressions must stay identical to the ones in BookRepository.search.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_book_search_tsv
+    ON book USING gin (to_tsvector('simple', book_title || ' ' || book_author));
+CREATE INDEX IF NOT EXISTS idx_book_search_trgm
+    ON book USING gin ((book_title || ' ' || book_author) gin_trgm_ops);
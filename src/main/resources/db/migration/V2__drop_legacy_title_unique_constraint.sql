@@ -0,0 +1,31 @@
+-- Titles used to be unique on their own. ddl-auto=update added the author + title constraint but never dropped
+-- the old one, whose name was generated by Hibernate, so it is looked up by its single book_title column.
+DO
+$$
+    DECLARE
+        legacy_constraint name;
+    BEGIN
+        FOR legacy_constraint IN
+            SELECT c.conname
+            FROM pg_constraint c
+            WHERE c.conrelid = 'book'::regclass
+              AND c.contype = 'u'
+              AND c.conkey = ARRAY [(SELECT a.attnum
+                                     FROM pg_attribute a
+                                     WHERE a.attrelid = 'book'::regclass
+                                       AND a.attname = 'book_title')]
+            LOOP
+                EXECUTE format('ALTER TABLE book DROP CONSTRAINT %I', legacy_constraint);
+            END LOOP;
+    END
+$$;
+
+-- Databases created before the author + title constraint existed get it now.
+DO
+$$
+    BEGIN
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'book'::regclass AND conname = 'uk_book_author_title') THEN
+            ALTER TABLE book ADD CONSTRAINT uk_book_author_title UNIQUE (book_author, book_title);
+        END IF;
+    END
+$$;
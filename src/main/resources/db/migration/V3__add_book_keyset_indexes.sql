@@ -0,0 +1,5 @@
+-- Keyset pagination of GET /books/ by title or author orders by (key, book_id) and seeks past the last row of the
+-- previous page; these indexes serve both without a sort. Built concurrently so that adding them to a populated
+-- table doesn't block writes, which makes Flyway run this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_title_id ON book (book_title, book_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_author_id ON book (book_author, book_id);
@@ -0,0 +1,8 @@
+-- V1 leaves an existing book table as it is, so a database created by ddl-auto=update from the original mapping,
+-- before books had a version, is still missing the column. Its rows start at version 0, as new books do; a column
+-- that ddl-auto added as nullable gets the same default and constraint, since the conditional updates increment it.
+ALTER TABLE book ADD COLUMN IF NOT EXISTS book_version bigint NOT NULL DEFAULT 0;
+UPDATE book SET book_version = 0 WHERE book_version IS NULL;
+ALTER TABLE book
+    ALTER COLUMN book_version SET DEFAULT 0,
+    ALTER COLUMN book_version SET NOT NULL;
@@ -0,0 +1,392 @@
+package com.example.library.reactive;
+
+import com.example.library.model.Book;
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookPageDTO;
+import com.example.library.model.BookPatchDTO;
+import com.example.library.model.BookPatchItemDTO;
+import com.example.library.model.BookPostDTO;
+import com.example.library.model.BookPutDTO;
+import com.example.library.model.BookSortKey;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@Testcontainers
+@SpringBootTest(classes = ReactiveLibraryApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles(ReactiveLibraryApplication.PROFILE)
+public class ReactiveBookControllerIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:17")
+            .withDatabaseName("test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgreSQLContainer.getHost() + ":"
+                + postgreSQLContainer.getFirstMappedPort() + "/" + postgreSQLContainer.getDatabaseName());
+        registry.add("spring.r2dbc.password", postgreSQLContainer::getPassword);
+        registry.add("spring.r2dbc.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+    }
+
+    @BeforeEach
+    void cleanDB() {
+        databaseClient.sql("DELETE FROM book").then().block();
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveBookRepository bookRepository;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    private Book save(String title, String author) {
+        return bookRepository.insertIfAbsent(title, author).block();
+    }
+
+    @Test
+    void getBooks_ShouldFollowCursor_WhenSortedByTitle() {
+        save("c", "author1");
+        Book first = save("a", "author2");
+        Book second = save("b", "author3");
+
+        BookPageDTO page = webTestClient.get().uri("/books/?limit=2&sort=title")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookPageDTO.class)
+                .returnResult().getResponseBody();
+        assertThat(page.items()).extracting("id").containsExactly(first.getId(), second.getId());
+        assertThat(page.approximateTotal()).isNotNegative();
+        assertThat(BookCursor.decode(page.nextCursor(), BookSortKey.TITLE)).isEqualTo(new BookCursor(BookSortKey.TITLE, second.getId(), "b"));
+
+        webTestClient.get().uri("/books/?limit=2&sort=title&after={after}", page.nextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[*].title").value(contains("c"))
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    void getBooks_ShouldReturnNotModified_UntilCatalogChanges() {
+        String etag = webTestClient.get().uri("/books/")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/books/")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.post().uri("/books/")
+                .bodyValue(new BookPostDTO("title", "author"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.get().uri("/books/")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items", hasSize(1));
+    }
+
+    @Test
+    void getBooks_ShouldReturnBadRequest_WhenLimitIsTooLarge() {
+        webTestClient.get().uri("/books/?limit=1001")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("VALIDATION_ERROR");
+    }
+
+    @Test
+    void exportBooks_ShouldStreamCsv() {
+        save("title, with comma", "author1");
+        save("title2", "author2");
+
+        String body = webTestClient.get().uri("/books/export?format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("text/csv")
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertThat(body).startsWith("id,title,author,version\n")
+                .contains(",\"title, with comma\",author1,0\n")
+                .contains(",title2,author2,0\n");
+    }
+
+    @Test
+    void exportBooks_ShouldStreamNdjson() {
+        save("title1", "author1");
+        save("title2", "author2");
+
+        String body = webTestClient.get().uri("/books/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertThat(body.lines().toList()).hasSize(2)
+                .allMatch(line -> line.startsWith("{") && line.contains("\"version\":0"));
+    }
+
+    @Test
+    void searchBooks_ShouldTolerateTypos() {
+        save("Sherlock Holmes", "Arthur Conan Doyle");
+        save("Dune", "Frank Herbert");
+
+        webTestClient.get().uri("/books/search?q=sherlok")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[*].title").value(contains("Sherlock Holmes"))
+                .jsonPath("$.hasNext").isEqualTo(false);
+    }
+
+    @Test
+    void getBookById_ShouldReturnBookWithETag() {
+        Book book = save("title", "author");
+
+        webTestClient.get().uri("/books/{id}", book.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("title")
+                .jsonPath("$.author").isEqualTo("author");
+    }
+
+    @Test
+    void getBookById_ShouldReturnNotFound_WhenBookDoesNotExist() {
+        webTestClient.get().uri("/books/{id}", 1000)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("NOT_FOUND");
+    }
+
+    @Test
+    void getBookById_ShouldReturnBadRequest_WhenParameterIsInvalid() {
+        webTestClient.get().uri("/books/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid value 'abc' for parameter 'id'. Expected type: 'Long'");
+    }
+
+    @Test
+    void addBook_ShouldReturnBadRequest_WhenAnyFieldIsEmpty() {
+        webTestClient.post().uri("/books/")
+                .bodyValue(new BookPostDTO("", "author"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("VALIDATION_ERROR")
+                .jsonPath("$.fieldErrors[0].field").isEqualTo("title");
+    }
+
+    @Test
+    void addBook_ShouldReturnConflict_WhenBookIsAlreadyExists() {
+        save("title", "author");
+
+        webTestClient.post().uri("/books/")
+                .bodyValue(new BookPostDTO("title", "author"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("ENTITY_EXISTS");
+    }
+
+    @Test
+    void addBooks_ShouldReturnPerItemResults() {
+        save("taken", "author");
+
+        webTestClient.post().uri("/books/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        new BookPostDTO("new", "author"),
+                        new BookPostDTO("taken", "author"),
+                        new BookPostDTO("", "author"),
+                        new BookPostDTO("new", "author")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[*].status").value(contains("CREATED", "DUPLICATE", "INVALID", "DUPLICATE"))
+                .jsonPath("$[0].book.title").isEqualTo("new");
+    }
+
+    @Test
+    void patchBooks_ShouldReturnPerItemResults() {
+        Book first = save("Title1", "Author1");
+        Book second = save("Title2", "Author2");
+        Book third = save("Title3", "Author3");
+
+        webTestClient.patch().uri("/books/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        new BookPatchItemDTO(first.getId(), null, new BookPatchDTO("New Title", null)),
+                        new BookPatchItemDTO(second.getId(), second.getVersion() + 1, new BookPatchDTO("Title", null)),
+                        new BookPatchItemDTO(third.getId(), null, new BookPatchDTO("Title2", "Author2")),
+                        new BookPatchItemDTO(third.getId() + 100, null, new BookPatchDTO(null, "Author")),
+                        new BookPatchItemDTO(third.getId(), null, new BookPatchDTO("", " "))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[*].status").value(contains("UPDATED", "MODIFIED", "DUPLICATE", "NOT_FOUND", "INVALID"))
+                .jsonPath("$[0].book.title").isEqualTo("New Title")
+                .jsonPath("$[0].book.author").isEqualTo("Author1")
+                .jsonPath("$[0].book.version").isEqualTo(1);
+
+        assertThat(bookRepository.findById(first.getId()).block().getTitle()).isEqualTo("New Title");
+        assertThat(bookRepository.findById(second.getId()).block().getTitle()).isEqualTo("Title2");
+    }
+
+    @Test
+    void patchBooks_ShouldReportDuplicate_WhenPairIsTakenConcurrently() throws Exception {
+        Book first = save("Title1", "Author1");
+        Book second = save("Title2", "Author2");
+
+        Connection connection = Mono.from(connectionFactory.create()).block();
+        try {
+            Mono.from(connection.beginTransaction()).block();
+            Flux.from(connection.createStatement("""
+                            INSERT INTO book (book_id, book_title, book_author, book_version)
+                            VALUES (nextval('book_seq'), 'Taken Title', 'Author2', 0)""").execute())
+                    .flatMap(Result::getRowsUpdated)
+                    .blockLast();
+            // The batch does not see the uncommitted book, so its update waits on the unique index until the commit.
+            CompletableFuture<WebTestClient.BodyContentSpec> response = CompletableFuture.supplyAsync(() ->
+                    webTestClient.patch().uri("/books/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(List.of(
+                                    new BookPatchItemDTO(first.getId(), null, new BookPatchDTO("New Title", null)),
+                                    new BookPatchItemDTO(second.getId(), null, new BookPatchDTO("Taken Title", null))))
+                            .exchange()
+                            .expectStatus().isOk()
+                            .expectBody());
+            while (databaseClient.sql("SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .block() == 0) {
+                Thread.sleep(50);
+            }
+            Mono.from(connection.commitTransaction()).block();
+
+            response.get(30, TimeUnit.SECONDS)
+                    .jsonPath("$[*].status").value(contains("UPDATED", "DUPLICATE"))
+                    .jsonPath("$[0].book.title").isEqualTo("New Title");
+        } finally {
+            Mono.from(connection.close()).block();
+        }
+        assertThat(bookRepository.findById(first.getId()).block().getTitle()).isEqualTo("New Title");
+        assertThat(bookRepository.findById(second.getId()).block().getTitle()).isEqualTo("Title2");
+    }
+
+    @Test
+    void updateBookById_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() {
+        Book book = save("title", "author");
+
+        webTestClient.put().uri("/books/{id}", book.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(new BookPutDTO("new title", "new author"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("new title");
+
+        webTestClient.patch().uri("/books/{id}", book.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(new BookPatchDTO("stale title", null))
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("PRECONDITION_FAILED");
+    }
+
+    @Test
+    void patchBookById_ShouldReturnBadRequest_WhenNothingToUpdate() {
+        Book book = save("title", "author");
+
+        webTestClient.patch().uri("/books/{id}", book.getId())
+                .bodyValue(new BookPatchDTO(" ", null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Nothing to update");
+    }
+
+    @Test
+    void deleteBookById_ShouldReturnNotFound_WhenBookIsNotDeleted() {
+        Book book = save("title", "author");
+
+        webTestClient.delete().uri("/books/{id}", book.getId())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.delete().uri("/books/{id}", book.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void deleteBooks_ShouldDeleteExistingBooks() {
+        Book first = save("title1", "author");
+        Book second = save("title2", "author");
+
+        webTestClient.delete().uri("/books/?ids={first},{second},999999", first.getId(), second.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deleted").isEqualTo(2);
+    }
+
+    @Test
+    void deleteBook_ShouldReturnMethodNotAllowed_WhenMethodIsNotSupported() {
+        webTestClient.put().uri("/books/")
+                .bodyValue(new BookPutDTO("title", "author"))
+                .exchange()
+                .expectStatus().isEqualTo(405)
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("METHOD_NOT_SUPPORTED");
+    }
+}
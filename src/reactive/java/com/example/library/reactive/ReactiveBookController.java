@@ -0,0 +1,141 @@
+package com.example.library.reactive;
+
+import com.example.library.controller.ETags;
+import com.example.library.model.BookBatchItemResult;
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookDTO;
+import com.example.library.model.BookDeleteResultDTO;
+import com.example.library.model.BookExportFormat;
+import com.example.library.model.BookPageDTO;
+import com.example.library.model.BookPatchDTO;
+import com.example.library.model.BookPatchItemDTO;
+import com.example.library.model.BookPostDTO;
+import com.example.library.model.BookPutDTO;
+import com.example.library.model.BookSearchPageDTO;
+import com.example.library.model.BookSortKey;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux counterpart of {@link com.example.library.controller.BookController}. It serves the same paths,
+ * parameters and responses, except the change stream and Idempotency-Key, whose state lives in the memory of the
+ * MVC application; the API documentation lives on the MVC controller.
+ */
+@Profile(ReactiveLibraryApplication.PROFILE)
+@RestController
+@RequestMapping("/books/")
+@Validated
+public class ReactiveBookController {
+    private final ReactiveBookService bookService;
+    private final ReactiveBookExportService bookExportService;
+
+    public ReactiveBookController(ReactiveBookService bookService, ReactiveBookExportService bookExportService) {
+        this.bookService = bookService;
+        this.bookExportService = bookExportService;
+    }
+
+    @GetMapping("/")
+    public Mono<ResponseEntity<BookPageDTO>> getBooks(@RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int limit,
+                                                      @RequestParam(defaultValue = "id") String sort,
+                                                      @RequestParam(defaultValue = "asc") String direction,
+                                                      ServerWebExchange exchange) {
+        BookSortKey sortKey = BookSortKey.from(sort);
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        BookCursor cursor = after == null ? null : BookCursor.decode(after, sortKey);
+        // The counter is read before the page, so the ETag can only be older than the body, never newer.
+        return bookService.getChangeCounter()
+                .map(ETags::forChangeCounter)
+                .flatMap(etag -> exchange.checkNotModified(etag)
+                        ? Mono.empty()
+                        : bookService.getBooks(cursor, sortKey, sortDirection, limit)
+                                .map(books -> ResponseEntity.ok().eTag(etag).body(books)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                                                        ServerWebExchange exchange) {
+        BookExportFormat exportFormat = BookExportFormat.from(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("books." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .body(bookExportService.exportBooks(exportFormat, exchange.getResponse().bufferFactory()));
+    }
+
+    @GetMapping("/search")
+    public Mono<BookSearchPageDTO> searchBooks(@RequestParam @NotBlank @Size(max = 200) String q,
+                                               @RequestParam(defaultValue = "0") @Min(0) @Max(1000) int page,
+                                               @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return bookService.searchBooks(q, page, size);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookDTO>> getBook(@PathVariable @Min(1) Long id) {
+        return bookService.getBookById(id)
+                .map(book -> ResponseEntity.ok().eTag(ETags.forBook(book.version())).body(book));
+    }
+
+    @PostMapping("/")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BookDTO> addBook(@Valid @NotNull @RequestBody BookPostDTO book) {
+        return bookService.addBook(book);
+    }
+
+    @PostMapping("/batch")
+    public Mono<List<BookBatchItemResult>> addBooks(@RequestBody @NotEmpty @Size(max = 1000) List<BookPostDTO> books) {
+        return bookService.addBooks(books);
+    }
+
+    @PatchMapping("/batch")
+    public Mono<List<BookBatchItemResult>> patchBooks(@RequestBody @NotEmpty @Size(max = 1000) List<BookPatchItemDTO> items) {
+        return bookService.patchBooks(items);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteBook(@PathVariable @Min(1) Long id,
+                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookService.deleteBookById(id, ETags.parseIfMatch(ifMatch));
+    }
+
+    @DeleteMapping("/")
+    public Mono<BookDeleteResultDTO> deleteBooks(@RequestParam @NotEmpty @Size(max = 1000) List<@NotNull @Min(1) Long> ids) {
+        return bookService.deleteBooksByIds(ids);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<BookDTO>> updateBook(@Valid @NotNull @RequestBody BookPutDTO bookPutDTO, @PathVariable @Min(1) Long id,
+                                                    @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookService.updateBook(bookPutDTO, id, ETags.parseIfMatch(ifMatch))
+                .map(book -> ResponseEntity.ok().eTag(ETags.forBook(book.version())).body(book));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<BookDTO>> patchBook(@RequestBody @NotNull BookPatchDTO bookDto, @PathVariable @Min(1) Long id,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookService.patchBook(bookDto, id, ETags.parseIfMatch(ifMatch))
+                .map(book -> ResponseEntity.ok().eTag(ETags.forBook(book.version())).body(book));
+    }
+}
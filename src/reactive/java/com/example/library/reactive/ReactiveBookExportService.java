@@ -0,0 +1,86 @@
+package com.example.library.reactive;
+
+import com.example.library.common.BookCsv;
+import com.example.library.model.Book;
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookExportFormat;
+import com.example.library.model.BookSortKey;
+import com.example.library.service.BookMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams the whole catalog as a flux of buffers, one per chunk of rows read with keyset pagination. The next
+ * chunk is only read once the client has taken the previous one, and no connection is held in between, so slow
+ * clients cannot exhaust the connection pool.
+ */
+@Profile(ReactiveLibraryApplication.PROFILE)
+@Service
+public class ReactiveBookExportService {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ReactiveBookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveBookExportService(ReactiveBookRepository bookRepository, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Flux<DataBuffer> exportBooks(BookExportFormat format, DataBufferFactory bufferFactory) {
+        Flux<DataBuffer> rows = nextChunk(null)
+                .expand(this::nextChunk)
+                .filter(books -> !books.isEmpty())
+                .map(books -> write(format, books, bufferFactory));
+        if (format == BookExportFormat.CSV) {
+            return Flux.concat(
+                    Flux.just(bufferFactory.wrap(BookCsv.HEADER.getBytes(StandardCharsets.UTF_8))),
+                    rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Reads the chunk after {@code after} (from the start if null); completes empty after the last chunk.
+     */
+    private Mono<List<Book>> nextChunk(List<Book> after) {
+        if (after != null && after.size() < CHUNK_SIZE) {
+            return Mono.empty();
+        }
+        BookCursor cursor = after == null ? null : new BookCursor(BookSortKey.ID, after.getLast().getId(), null);
+        return bookRepository.findPage(cursor, BookSortKey.ID, Sort.Direction.ASC, CHUNK_SIZE).collectList();
+    }
+
+    private DataBuffer write(BookExportFormat format, List<Book> books, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(books.size() * 64);
+        for (Book book : books) {
+            switch (format) {
+                case NDJSON -> {
+                    buffer.write(toJson(book));
+                    buffer.write((byte) '\n');
+                }
+                case CSV -> buffer.write(BookCsv.row(BookMapper.toBookDTO(book)), StandardCharsets.UTF_8);
+            }
+        }
+        return buffer;
+    }
+
+    private byte[] toJson(Book book) {
+        try {
+            return objectMapper.writeValueAsBytes(BookMapper.toBookDTO(book));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.library.reactive;
+
+import com.example.library.common.BookKey;
+import com.example.library.model.Book;
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookSortKey;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * R2DBC counterpart of {@link com.example.library.repository.BookRepository}. It runs the same SQL, so both
+ * variants can serve the same database side by side.
+ */
+@Profile(ReactiveLibraryApplication.PROFILE)
+@Repository
+public class ReactiveBookRepository {
+    private final DatabaseClient databaseClient;
+
+    public ReactiveBookRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Book> findById(Long id) {
+        return databaseClient.sql("SELECT * FROM book WHERE book_id = :id")
+                .bind("id", id)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM book WHERE book_id = :id)")
+                .bind("id", id)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Flux<Book> findPage(BookCursor after, BookSortKey sortKey, Sort.Direction direction, int limit) {
+        String column = column(sortKey);
+        String order = direction.isAscending() ? "ASC" : "DESC";
+        String comparison = direction.isAscending() ? ">" : "<";
+        StringBuilder sql = new StringBuilder("SELECT * FROM book");
+        if (after != null) {
+            sql.append(sortKey == BookSortKey.ID
+                    ? " WHERE book_id " + comparison + " :afterId"
+                    : " WHERE (" + column + ", book_id) " + comparison + " (:afterValue, :afterId)");
+        }
+        if (sortKey != BookSortKey.ID) {
+            sql.append(" ORDER BY ").append(column).append(' ').append(order).append(", book_id ").append(order);
+        } else {
+            sql.append(" ORDER BY book_id ").append(order);
+        }
+        sql.append(" LIMIT :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("limit", limit);
+        if (after != null) {
+            spec = spec.bind("afterId", after.id());
+            if (sortKey != BookSortKey.ID) {
+                spec = spec.bind("afterValue", after.value());
+            }
+        }
+        return spec.map(ReactiveBookRepository::toBook).all();
+    }
+
+    public Mono<Long> approximateCount() {
+        return databaseClient.sql("SELECT CAST(GREATEST(reltuples, 0) AS bigint) FROM pg_class WHERE oid = CAST('book' AS regclass)")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Flux<Book> search(String q, int limit, long offset) {
+        return databaseClient.sql("""
+                        SELECT b.* FROM book b
+                        WHERE to_tsvector('simple', b.book_title || ' ' || b.book_author) @@ websearch_to_tsquery('simple', :q)
+                           OR :q <% (b.book_title || ' ' || b.book_author)
+                        ORDER BY ts_rank(to_tsvector('simple', b.book_title || ' ' || b.book_author), websearch_to_tsquery('simple', :q))
+                                 + word_similarity(:q, b.book_title || ' ' || b.book_author) DESC,
+                                 b.book_id
+                        LIMIT :limit OFFSET :offset""")
+                .bind("q", q)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Mono<Book> insertIfAbsent(String title, String author) {
+        return databaseClient.sql("""
+                        INSERT INTO book (book_id, book_title, book_author, book_version)
+                        VALUES (nextval('book_seq'), :title, :author, 0)
+                        ON CONFLICT DO NOTHING
+                        RETURNING *""")
+                .bind("title", title)
+                .bind("author", author)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    /**
+     * Inserts every author and title pair at the same positions of the two lists in one statement, skipping
+     * pairs that violate a unique constraint, and returns the inserted rows in no particular order; see
+     * {@link com.example.library.repository.BookRepository#insertAllIfAbsent}.
+     */
+    public Flux<Book> insertAllIfAbsent(List<String> titles, List<String> authors) {
+        return databaseClient.sql("""
+                        INSERT INTO book (book_id, book_title, book_author, book_version)
+                        SELECT nextval('book_seq'), t.title, t.author, 0
+                        FROM unnest(CAST(:titles AS varchar[]), CAST(:authors AS varchar[])) AS t(title, author)
+                        ORDER BY t.author, t.title
+                        ON CONFLICT DO NOTHING
+                        RETURNING *""")
+                .bind("titles", titles.toArray(String[]::new))
+                .bind("authors", authors.toArray(String[]::new))
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    /**
+     * Loads the books and locks their rows until the end of the transaction, in ID order, so concurrent
+     * batches that touch the same books wait for each other instead of deadlocking.
+     */
+    public Flux<Book> findAllForUpdateByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("SELECT * FROM book WHERE book_id = ANY(:ids) ORDER BY book_id FOR UPDATE")
+                .bind("ids", ids.toArray(Long[]::new))
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    /**
+     * Returns the IDs of the books that have one of the author and title pairs, keyed by the pair; see
+     * {@link com.example.library.repository.BookRepository#findKeyOwners}.
+     */
+    public Mono<Map<BookKey, Long>> findKeyOwners(Collection<BookKey> keys) {
+        return databaseClient.sql("""
+                        SELECT b.book_id, b.book_author, b.book_title
+                        FROM book b
+                        JOIN unnest(CAST(:authors AS varchar[]), CAST(:titles AS varchar[])) AS t(author, title)
+                          ON b.book_author = t.author AND b.book_title = t.title""")
+                .bind("authors", keys.stream().map(BookKey::author).toArray(String[]::new))
+                .bind("titles", keys.stream().map(BookKey::title).toArray(String[]::new))
+                .map(row -> Map.entry(
+                        new BookKey(row.get("book_author", String.class), row.get("book_title", String.class)),
+                        row.get("book_id", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Sets the title and author at the same positions of the three lists on every book and returns the new rows
+     * in no particular order. A book whose new author and title a concurrent transaction has taken is left
+     * unchanged and is missing from the result; see
+     * {@link com.example.library.repository.BookRepositoryCustom#updateAllIfAbsent}.
+     */
+    public Flux<Book> updateAllIfAbsent(List<Long> ids, List<String> titles, List<String> authors) {
+        return updateAll(ids, titles, authors)
+                .onErrorResume(DuplicateKeyException.class, e -> Flux.range(0, ids.size())
+                        .concatMap(i -> updateAll(List.of(ids.get(i)), List.of(titles.get(i)), List.of(authors.get(i)))
+                                // the pair was taken after the caller checked it
+                                .onErrorResume(DuplicateKeyException.class, ignored -> Flux.empty())));
+    }
+
+    /**
+     * Updates the books with one statement behind a savepoint, so a unique violation only undoes this statement
+     * and the caller's transaction can go on.
+     */
+    private Flux<Book> updateAll(List<Long> ids, List<String> titles, List<String> authors) {
+        return databaseClient.sql("SAVEPOINT update_all").then()
+                .then(databaseClient.sql("""
+                                UPDATE book b SET book_title = t.title, book_author = t.author, book_version = b.book_version + 1
+                                FROM unnest(CAST(:ids AS bigint[]), CAST(:titles AS varchar[]), CAST(:authors AS varchar[])) AS t(id, title, author)
+                                WHERE b.book_id = t.id
+                                RETURNING b.*""")
+                        .bind("ids", ids.toArray(Long[]::new))
+                        .bind("titles", titles.toArray(String[]::new))
+                        .bind("authors", authors.toArray(String[]::new))
+                        .map(ReactiveBookRepository::toBook)
+                        .all()
+                        .collectList())
+                .flatMap(books -> databaseClient.sql("RELEASE SAVEPOINT update_all").then().thenReturn(books))
+                .onErrorResume(DuplicateKeyException.class, e -> databaseClient.sql("ROLLBACK TO SAVEPOINT update_all")
+                        .then()
+                        .then(Mono.error(e)))
+                .flatMapIterable(books -> books);
+    }
+
+    /**
+     * Updates the given columns in place and returns the new row. A null title or author is left unchanged;
+     * if {@code versions} is not null, the row is only updated while it still has one of those versions.
+     */
+    public Mono<Book> update(Long id, String title, String author, List<Long> versions) {
+        StringBuilder sql = new StringBuilder("UPDATE book SET ");
+        if (title != null) {
+            sql.append("book_title = :title, ");
+        }
+        if (author != null) {
+            sql.append("book_author = :author, ");
+        }
+        sql.append("book_version = book_version + 1 WHERE book_id = :id");
+        if (versions != null) {
+            sql.append(" AND book_version = ANY(:versions)");
+        }
+        sql.append(" RETURNING *");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("id", id);
+        if (title != null) {
+            spec = spec.bind("title", title);
+        }
+        if (author != null) {
+            spec = spec.bind("author", author);
+        }
+        if (versions != null) {
+            spec = spec.bind("versions", versions.toArray(Long[]::new));
+        }
+        return spec.map(ReactiveBookRepository::toBook).one();
+    }
+
+    public Mono<Long> deleteById(Long id, List<Long> versions) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(versions == null
+                        ? "DELETE FROM book WHERE book_id = :id"
+                        : "DELETE FROM book WHERE book_id = :id AND book_version = ANY(:versions)")
+                .bind("id", id);
+        if (versions != null) {
+            spec = spec.bind("versions", versions.toArray(Long[]::new));
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Flux<Long> deleteByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("DELETE FROM book WHERE book_id = ANY(:ids) RETURNING book_id")
+                .bind("ids", ids.toArray(Long[]::new))
+                .map(row -> row.get(0, Long.class))
+                .all();
+    }
+
+    public Mono<Long> currentChangeCounter() {
+        return databaseClient.sql("SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM book_change_seq")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Long> incrementChangeCounter() {
+        return databaseClient.sql("SELECT nextval('book_change_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static String column(BookSortKey sortKey) {
+        return switch (sortKey) {
+            case ID     -> "book_id";
+            case TITLE  -> "book_title";
+            case AUTHOR -> "book_author";
+        };
+    }
+
+    private static Book toBook(Readable row) {
+        return new Book(
+                row.get("book_id", Long.class),
+                row.get("book_title", String.class),
+                row.get("book_author", String.class),
+                row.get("book_version", Long.class));
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.library.reactive;
+
+import com.example.library.common.BookKey;
+import com.example.library.common.BookValidation;
+import com.example.library.exception.FieldErrorResponse;
+import com.example.library.model.*;
+import com.example.library.service.BookMapper;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.Validator;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+
+/**
+ * Non-blocking counterpart of {@link com.example.library.service.BookService} and
+ * {@link com.example.library.service.BookBatchService}. Errors are signalled with the same exceptions, so
+ * both variants answer with the same status codes and bodies.
+ */
+@Profile(ReactiveLibraryApplication.PROFILE)
+@Service
+public class ReactiveBookService {
+    private final ReactiveBookRepository bookRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+
+    public ReactiveBookService(ReactiveBookRepository bookRepository, TransactionalOperator transactionalOperator, Validator validator) {
+        this.bookRepository = bookRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+    }
+
+    public Mono<BookPageDTO> getBooks(BookCursor after, BookSortKey sortKey, Sort.Direction direction, int limit) {
+        return bookRepository.findPage(after, sortKey, direction, limit + 1)
+                .map(BookMapper::toBookDTO)
+                .collectList()
+                .zipWith(bookRepository.approximateCount(), (books, total) -> {
+                    List<BookDTO> items = books.size() > limit ? books.subList(0, limit) : books;
+                    String nextCursor = books.size() > limit ? BookCursor.after(items.getLast(), sortKey).encode() : null;
+                    return new BookPageDTO(items, nextCursor, total);
+                });
+    }
+
+    public Mono<BookSearchPageDTO> searchBooks(String query, int page, int size) {
+        return bookRepository.search(query.trim(), size + 1, (long) page * size)
+                .map(BookMapper::toBookDTO)
+                .collectList()
+                .map(books -> new BookSearchPageDTO(
+                        books.size() > size ? books.subList(0, size) : books, page, size, books.size() > size));
+    }
+
+    /**
+     * Returns a counter that grows after every committed change of the catalog.
+     */
+    public Mono<Long> getChangeCounter() {
+        return bookRepository.currentChangeCounter();
+    }
+
+    public Mono<BookDTO> getBookById(Long id) {
+        return bookRepository.findById(id)
+                .map(BookMapper::toBookDTO)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Book not found.")));
+    }
+
+    public Mono<BookDTO> addBook(BookPostDTO book) {
+        return bookRepository.insertIfAbsent(book.title(), book.author())
+                .map(BookMapper::toBookDTO)
+                .switchIfEmpty(Mono.error(() -> new EntityExistsException("This book is already exists in database")))
+                .flatMap(this::changed);
+    }
+
+    public Mono<Void> deleteBookById(Long id, List<Long> expectedVersions) {
+        return bookRepository.deleteById(id, expectedVersions)
+                .flatMap(deleted -> deleted == 0 ? notFoundOrModified(id, expectedVersions) : changed(deleted))
+                .then();
+    }
+
+    public Mono<BookDeleteResultDTO> deleteBooksByIds(List<Long> ids) {
+        return bookRepository.deleteByIdIn(ids)
+                .count()
+                .flatMap(deleted -> deleted == 0 ? Mono.just(deleted) : changed(deleted))
+                .map(deleted -> new BookDeleteResultDTO(deleted.intValue()));
+    }
+
+    public Mono<BookDTO> updateBook(BookPutDTO book, Long id, List<Long> expectedVersions) {
+        return update(id, book.title(), book.author(), expectedVersions);
+    }
+
+    public Mono<BookDTO> patchBook(BookPatchDTO book, Long id, List<Long> expectedVersions) {
+        if (BookValidation.isBookPatchDTOEmpty(book)) {
+            return Mono.error(new IllegalArgumentException("Nothing to update"));
+        }
+        return update(id,
+                StringUtils.isNotBlank(book.title()) ? book.title() : null,
+                StringUtils.isNotBlank(book.author()) ? book.author() : null,
+                expectedVersions);
+    }
+
+    /**
+     * Inserts all valid, non-duplicate books in one transaction, with the same single
+     * {@code INSERT ... ON CONFLICT DO NOTHING} statement and duplicate rules as
+     * {@link com.example.library.service.BookBatchService#addBooks}.
+     */
+    public Mono<List<BookBatchItemResult>> addBooks(List<BookPostDTO> books) {
+        BookBatchItemResult[] results = new BookBatchItemResult[books.size()];
+
+        Map<BookKey, Integer> indexesByKey = new LinkedHashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            List<FieldErrorResponse> fieldErrors = BookValidation.validate(validator, books.get(i));
+            BookPostDTO book = books.get(i);
+            if (!fieldErrors.isEmpty()) {
+                results[i] = BookBatchItemResult.invalid(i, fieldErrors);
+            } else if (indexesByKey.putIfAbsent(new BookKey(book.author(), book.title()), i) != null) {
+                results[i] = BookBatchItemResult.duplicate(i, "This book is already exists in database");
+            }
+        }
+        if (indexesByKey.isEmpty()) {
+            return Mono.just(Arrays.asList(results));
+        }
+
+        List<String> titles = new ArrayList<>(indexesByKey.size());
+        List<String> authors = new ArrayList<>(indexesByKey.size());
+        indexesByKey.keySet().forEach(key -> {
+            titles.add(key.title());
+            authors.add(key.author());
+        });
+        return bookRepository.insertAllIfAbsent(titles, authors)
+                .collectList()
+                .as(transactionalOperator::transactional)
+                .flatMap(savedBooks -> {
+                    for (Book savedBook : savedBooks) {
+                        int index = indexesByKey.get(BookKey.of(savedBook));
+                        results[index] = BookBatchItemResult.created(index, BookMapper.toBookDTO(savedBook));
+                    }
+                    for (int index : indexesByKey.values()) {
+                        if (results[index] == null) {
+                            results[index] = BookBatchItemResult.duplicate(index, "This book is already exists in database");
+                        }
+                    }
+                    return savedBooks.isEmpty() ? Mono.just(Arrays.asList(results)) : changed(Arrays.asList(results));
+                });
+    }
+
+    /**
+     * Applies partial updates in one transaction with the same per-item rules as
+     * {@link com.example.library.service.BookBatchService#patchBooks}. The books are loaded and locked with one
+     * query, the owners of the new author and title pairs are looked up with one more, and all changes are
+     * written with a single {@code UPDATE ... FROM unnest(...)} statement.
+     */
+    public Mono<List<BookBatchItemResult>> patchBooks(List<BookPatchItemDTO> items) {
+        BookBatchItemResult[] results = new BookBatchItemResult[items.size()];
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            List<FieldErrorResponse> fieldErrors = BookValidation.validate(items.get(i), ids);
+            if (!fieldErrors.isEmpty()) {
+                results[i] = BookBatchItemResult.invalid(i, fieldErrors);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Mono.just(Arrays.asList(results));
+        }
+
+        return bookRepository.findAllForUpdateByIdIn(ids)
+                .collectMap(Book::getId)
+                .flatMap(booksById -> {
+                    Map<Integer, BookKey> newKeys = new HashMap<>();
+                    for (int i = 0; i < items.size(); i++) {
+                        if (results[i] != null) continue;
+                        BookPatchItemDTO item = items.get(i);
+                        Book book = booksById.get(item.id());
+                        if (book == null) {
+                            results[i] = BookBatchItemResult.notFound(i);
+                        } else if (item.version() != null && !item.version().equals(book.getVersion())) {
+                            results[i] = BookBatchItemResult.modified(i);
+                        } else {
+                            newKeys.put(i, BookKey.of(book, item.patch()));
+                        }
+                    }
+                    if (newKeys.isEmpty()) {
+                        return Mono.just(List.<Book>of());
+                    }
+                    return bookRepository.findKeyOwners(new HashSet<>(newKeys.values()))
+                            .flatMap(takenKeys -> {
+                                List<Long> patchedIds = new ArrayList<>();
+                                List<String> titles = new ArrayList<>();
+                                List<String> authors = new ArrayList<>();
+                                for (int i = 0; i < items.size(); i++) {
+                                    BookKey key = newKeys.get(i);
+                                    if (key == null) continue;
+                                    Long id = items.get(i).id();
+                                    Long ownerId = takenKeys.putIfAbsent(key, id);
+                                    if (ownerId != null && !ownerId.equals(id)) {
+                                        results[i] = BookBatchItemResult.duplicate(i, "This book is already exists in database");
+                                        continue;
+                                    }
+                                    patchedIds.add(id);
+                                    titles.add(key.title());
+                                    authors.add(key.author());
+                                }
+                                return patchedIds.isEmpty()
+                                        ? Mono.just(List.<Book>of())
+                                        : bookRepository.updateAllIfAbsent(patchedIds, titles, authors).collectList();
+                            });
+                })
+                .as(transactionalOperator::transactional)
+                .flatMap(updatedBooks -> {
+                    Map<Long, BookDTO> updatedById = new HashMap<>();
+                    updatedBooks.forEach(book -> updatedById.put(book.getId(), BookMapper.toBookDTO(book)));
+                    for (int i = 0; i < items.size(); i++) {
+                        if (results[i] != null) continue;
+                        BookDTO updatedBook = updatedById.get(items.get(i).id());
+                        results[i] = updatedBook != null
+                                ? BookBatchItemResult.updated(i, updatedBook)
+                                : BookBatchItemResult.duplicate(i, "This book is already exists in database");
+                    }
+                    return updatedBooks.isEmpty() ? Mono.just(Arrays.asList(results)) : changed(Arrays.asList(results));
+                });
+    }
+
+    private Mono<BookDTO> update(Long id, String title, String author, List<Long> expectedVersions) {
+        return bookRepository.update(id, title, author, expectedVersions)
+                .map(BookMapper::toBookDTO)
+                .switchIfEmpty(Mono.defer(() -> notFoundOrModified(id, expectedVersions)))
+                .flatMap(this::changed);
+    }
+
+    private <T> Mono<T> changed(T result) {
+        return bookRepository.incrementChangeCounter().thenReturn(result);
+    }
+
+    private <T> Mono<T> notFoundOrModified(Long id, List<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return Mono.error(new EntityNotFoundException("Book not found."));
+        }
+        return bookRepository.existsById(id)
+                .flatMap(exists -> Mono.error(exists
+                        ? new OptimisticLockException("Book was modified by another request.")
+                        : new EntityNotFoundException("Book not found.")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.library.reactive;
+
+import com.example.library.exception.ErrorResponse;
+import com.example.library.exception.FieldErrorResponse;
+import com.example.library.exception.GlobalExceptionHandler;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.List;
+
+/**
+ * Maps the WebFlux flavours of the request errors to the same responses as {@link GlobalExceptionHandler}
+ * gives for their servlet counterparts. All other exceptions are handled by the inherited methods.
+ */
+@Profile(ReactiveLibraryApplication.PROFILE)
+@ControllerAdvice
+public class ReactiveExceptionHandler extends GlobalExceptionHandler {
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleWebExchangeBind(WebExchangeBindException exception) {
+        List<FieldErrorResponse> fieldErrors = exception.getBindingResult().getFieldErrors().stream()
+                .map(error -> new FieldErrorResponse(
+                        error.getField(),
+                        error.getDefaultMessage()
+                ))
+                .toList();
+        ErrorResponse errorResponse = ErrorResponse.of("Validation failed", "VALIDATION_ERROR", fieldErrors);
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInput(ServerWebInputException exception) {
+        String message = exception.getReason();
+        if (exception.getCause() instanceof TypeMismatchException typeMismatch && exception.getMethodParameter() != null) {
+            message = String.format("Invalid value '%s' for parameter '%s'. Expected type: '%s'",
+                    typeMismatch.getValue(),
+                    exception.getMethodParameter().getParameterName(),
+                    typeMismatch.getRequiredType() != null ? typeMismatch.getRequiredType().getSimpleName() : "unknown");
+        }
+        ErrorResponse errorResponse = ErrorResponse.of(message, "BAD_REQUEST", List.of());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MethodNotAllowedException.class)
+    public ResponseEntity<ErrorResponse> handleMethodNotAllowed(MethodNotAllowedException exception) {
+        ErrorResponse errorResponse = ErrorResponse.of(exception.getMessage(), "METHOD_NOT_SUPPORTED", List.of());
+        return new ResponseEntity<>(errorResponse, HttpStatus.METHOD_NOT_ALLOWED);
+    }
+}
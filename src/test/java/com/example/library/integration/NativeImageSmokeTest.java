@@ -0,0 +1,156 @@
+package com.example.library.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the native executable built by {@code mvn -Pnative package} against PostgreSQL and exercises the code
+ * paths that depend on reachability hints: JSON binding of the records, the entity, the BookMapper pattern
+ * switch, the logging aspects, the error handler and springdoc. Runs in the verify phase of the native profile,
+ * which passes the executable in {@code library.native.executable}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "library.native.executable", matches = ".+")
+class NativeImageSmokeTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:17")
+            .withDatabaseName("test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private static Process application;
+    private static Path log;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        log = Files.createTempFile("library-native", ".log");
+
+        long start = System.nanoTime();
+        application = new ProcessBuilder(List.of(
+                System.getProperty("library.native.executable"),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                "--spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                "--spring.datasource.password=" + postgreSQLContainer.getPassword()))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            Assertions.assertThat(application.isAlive()).as("application exited, see %s", log).isTrue();
+            Assertions.assertThat(System.nanoTime()).as("application did not start, see %s", log).isLessThan(deadline);
+            try {
+                if (send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))).statusCode() == 200) {
+                    break;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(20);
+        }
+        System.out.printf("Native executable answered after %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @AfterAll
+    static void stopApplication() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            application.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void booksApi_ShouldWork_InNativeImage() throws Exception {
+        HttpResponse<String> created = send(json("/books/", "POST", """
+                {"title": "Native Title", "author": "Native Author"}"""));
+        Assertions.assertThat(created.statusCode()).isEqualTo(201);
+        Integer id = JsonPath.read(created.body(), "$.id");
+        Assertions.assertThat(JsonPath.<Integer>read(created.body(), "$.version")).isZero();
+
+        HttpResponse<String> fetched = send(HttpRequest.newBuilder(URI.create(baseUrl + "/books/" + id)));
+        Assertions.assertThat(fetched.statusCode()).isEqualTo(200);
+        Assertions.assertThat(JsonPath.<String>read(fetched.body(), "$.title")).isEqualTo("Native Title");
+
+        HttpResponse<String> batch = send(json("/books/batch", "POST", """
+                [{"title": "Batch Title", "author": "Batch Author"}, {"title": "", "author": "Batch Author"}]"""));
+        Assertions.assertThat(batch.statusCode()).isEqualTo(200);
+        Assertions.assertThat(JsonPath.<List<String>>read(batch.body(), "$[*].status")).containsExactly("CREATED", "INVALID");
+
+        HttpResponse<String> patched = send(json("/books/batch", "PATCH", """
+                [{"id": %d, "patch": {"title": "Patched Title"}}]""".formatted(id)));
+        Assertions.assertThat(patched.statusCode()).isEqualTo(200);
+        Assertions.assertThat(JsonPath.<String>read(patched.body(), "$[0].book.title")).isEqualTo("Patched Title");
+
+        HttpResponse<String> page = send(HttpRequest.newBuilder(URI.create(baseUrl + "/books/?limit=10&sort=title")));
+        Assertions.assertThat(page.statusCode()).isEqualTo(200);
+        Assertions.assertThat(JsonPath.<List<String>>read(page.body(), "$.items[*].title"))
+                .containsExactly("Batch Title", "Patched Title");
+    }
+
+    @Test
+    void errors_ShouldBeRenderedAsErrorResponse_InNativeImage() throws Exception {
+        HttpResponse<String> missing = send(HttpRequest.newBuilder(URI.create(baseUrl + "/books/999999")));
+
+        Assertions.assertThat(missing.statusCode()).isEqualTo(404);
+        Assertions.assertThat(JsonPath.<String>read(missing.body(), "$.errorCode")).isEqualTo("NOT_FOUND");
+        Assertions.assertThat(JsonPath.<String>read(missing.body(), "$.requestId")).isNotBlank();
+    }
+
+    @Test
+    void serviceCalls_ShouldBeTimedByAspect_InNativeImage() throws Exception {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/books/?limit=1")));
+
+        HttpResponse<String> metrics = send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/prometheus")));
+
+        Assertions.assertThat(metrics.statusCode()).isEqualTo(200);
+        Assertions.assertThat(metrics.body()).contains("library_service_calls_seconds_count{");
+    }
+
+    @Test
+    void openApi_ShouldDescribeBooksApi_InNativeImage() throws Exception {
+        HttpResponse<String> apiDocs = send(HttpRequest.newBuilder(URI.create(baseUrl + "/v3/api-docs")));
+
+        Assertions.assertThat(apiDocs.statusCode()).isEqualTo(200);
+        Assertions.assertThat(apiDocs.body()).contains("/books/batch", "BookPatchItemDTO");
+    }
+
+    private static HttpRequest.Builder json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
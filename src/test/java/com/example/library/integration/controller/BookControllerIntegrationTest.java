@@ -1,23 +1,61 @@
 package com.example.library.integration.controller;
 
+import com.example.library.config.CacheConfig;
+import com.example.library.controller.IdempotencyKeyFilter;
+import com.example.library.logging.RequestIdFilter;
 import com.example.library.model.*;
 import com.example.library.repository.BookRepository;
 import com.example.library.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +63,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Testcontainers
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 public class BookControllerIntegrationTest {
 
     @Container
@@ -38,11 +77,15 @@ public class BookControllerIntegrationTest {
         registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
         registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
         registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        // The application skips schema checks at startup; here they catch drift between the migrations and the entity.
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
     }
 
     @BeforeEach
     void cleanDB() {
         bookRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).clear();
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE).clear();
     }
 
     @Autowired
@@ -54,6 +97,21 @@ public class BookControllerIntegrationTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @LocalServerPort
+    private int port;
+
     @Test
     void getAllBooks_ShouldReturnOk() throws Exception {
         bookRepository.save(new Book("title1", "author1"));
@@ -62,9 +120,313 @@ public class BookControllerIntegrationTest {
         mockMvc.perform(get("/books/")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[*].author").value(containsInAnyOrder("author1", "author2")))
-                .andExpect(jsonPath("$[*].title").value(containsInAnyOrder("title1", "title2")));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[*].author").value(containsInAnyOrder("author1", "author2")))
+                .andExpect(jsonPath("$.items[*].title").value(containsInAnyOrder("title1", "title2")))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()))
+                .andExpect(jsonPath("$.approximateTotal").exists());
+    }
+
+    @Test
+    void getBooks_ShouldFollowCursor_WhenSortedByTitle() throws Exception {
+        bookRepository.save(new Book("c", "author1"));
+        Book first = bookRepository.save(new Book("a", "author2"));
+        Book second = bookRepository.save(new Book("b", "author3"));
+
+        String body = mockMvc.perform(get("/books/")
+                        .param("limit", "2")
+                        .param("sort", "title")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(first.getId().intValue(), second.getId().intValue())))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readValue(body, BookPageDTO.class).nextCursor();
+
+        mockMvc.perform(get("/books/")
+                        .param("limit", "2")
+                        .param("sort", "title")
+                        .param("after", nextCursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].title").value(contains("c")))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void getBooks_ShouldContinuePaging_WhenLastBookOfPageIsDeleted() throws Exception {
+        bookRepository.save(new Book("a", "author1"));
+        Book last = bookRepository.save(new Book("b", "author2"));
+        bookRepository.save(new Book("c", "author3"));
+
+        String body = mockMvc.perform(get("/books/").param("limit", "2").param("sort", "author"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        bookRepository.deleteById(last.getId());
+
+        mockMvc.perform(get("/books/")
+                        .param("limit", "2")
+                        .param("sort", "author")
+                        .param("after", objectMapper.readValue(body, BookPageDTO.class).nextCursor()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].title").value(contains("c")));
+    }
+
+    @Test
+    void getBooks_ShouldReturnBadRequest_WhenCursorIsForAnotherSortKey() throws Exception {
+        mockMvc.perform(get("/books/")
+                        .param("sort", "title")
+                        .param("after", new BookCursor(BookSortKey.AUTHOR, 1L, "Author").encode()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void getBooks_ShouldReturnBadRequest_WhenSortKeyIsUnknown() throws Exception {
+        mockMvc.perform(get("/books/")
+                        .param("sort", "isbn")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void getBooks_ShouldReturnBadRequest_WhenLimitIsTooLarge() throws Exception {
+        mockMvc.perform(get("/books/")
+                        .param("limit", "1001")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void exportBooks_ShouldStreamNdjson() throws Exception {
+        Book first = bookRepository.save(new Book("title1", "author1"));
+        Book second = bookRepository.save(new Book("title2", "author2"));
+
+        String body = mockMvc.perform(get("/books/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertThat(lines).hasSize(2);
+        Assertions.assertThat(objectMapper.readValue(lines[0], BookDTO.class)).isEqualTo(BookDTO.from(first));
+        Assertions.assertThat(objectMapper.readValue(lines[1], BookDTO.class)).isEqualTo(BookDTO.from(second));
+    }
+
+    @Test
+    void addBook_ShouldAcceptAndReturnCbor() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+
+        byte[] body = mockMvc.perform(post("/books/")
+                        .contentType("application/cbor")
+                        .accept("application/cbor")
+                        .content(cborMapper.writeValueAsBytes(new BookPostDTO("Title", "Author"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BookDTO created = cborMapper.readValue(body, BookDTO.class);
+        Assertions.assertThat(created.title()).isEqualTo("Title");
+        Assertions.assertThat(bookRepository.findById(created.id())).isPresent();
+    }
+
+    @Test
+    void getAllBooks_ShouldReturnSmile_WhenRequested() throws Exception {
+        bookRepository.save(new Book("title1", "author1"));
+        bookRepository.save(new Book("title2", "author2"));
+
+        byte[] body = mockMvc.perform(get("/books/").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BookPageDTO page = new SmileMapper().readValue(body, BookPageDTO.class);
+        Assertions.assertThat(page.items()).extracting(BookDTO::title).containsExactly("title1", "title2");
+    }
+
+    @Test
+    void getAllBooks_ShouldBeGzipped_WhenClientAcceptsIt() throws Exception {
+        bookRepository.saveAll(IntStream.range(0, 30)
+                .mapToObj(i -> new Book("title" + i, "author" + i))
+                .toList());
+
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/books/?limit=50"))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        Assertions.assertThat(response.statusCode()).isEqualTo(200);
+        Assertions.assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        try (InputStream body = new GZIPInputStream(response.body())) {
+            Assertions.assertThat(objectMapper.readValue(body, BookPageDTO.class).items()).hasSize(30);
+        }
+    }
+
+    @Test
+    @Timeout(value = 30, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void streamChanges_ShouldPushCommittedChanges_AndResumeAfterLastEventId() throws Exception {
+        String lastEventId;
+        try (Stream<String> stream = openChangeStream(null)) {
+            Iterator<String> lines = stream.iterator();
+            String body = mockMvc.perform(post("/books/")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new BookPostDTO("Title", "Author"))))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            BookDTO created = objectMapper.readValue(body, BookDTO.class);
+
+            List<String> event = nextEvent(lines);
+            Assertions.assertThat(event).contains("event:created");
+            BookChangedEvent change = objectMapper.readValue(field(event, "data:"), BookChangedEvent.class);
+            Assertions.assertThat(change.books()).containsExactly(created);
+            lastEventId = field(event, "id:");
+
+            mockMvc.perform(delete("/books/{id}", created.id()))
+                    .andExpect(status().isOk());
+        }
+
+        try (Stream<String> stream = openChangeStream(lastEventId)) {
+            List<String> event = nextEvent(stream.iterator());
+            Assertions.assertThat(event).contains("event:deleted");
+            Assertions.assertThat(objectMapper.readValue(field(event, "data:"), BookChangedEvent.class).ids()).hasSize(1);
+        }
+    }
+
+    private Stream<String> openChangeStream(String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/books/stream"));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+                .get(10, TimeUnit.SECONDS);
+        Assertions.assertThat(response.statusCode()).isEqualTo(200);
+        Assertions.assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValueSatisfying(
+                contentType -> Assertions.assertThat(contentType).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        return response.body();
+    }
+
+    /**
+     * Returns the lines of the next named event, skipping comments.
+     */
+    private static List<String> nextEvent(Iterator<String> lines) {
+        List<String> event = new ArrayList<>();
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.isEmpty()) {
+                if (event.stream().anyMatch(field -> field.startsWith("event:"))) {
+                    return event;
+                }
+                event.clear();
+            } else if (!line.startsWith(":")) {
+                event.add(line);
+            }
+        }
+        throw new AssertionError("stream ended before an event arrived");
+    }
+
+    private static String field(List<String> event, String prefix) {
+        return event.stream()
+                .filter(line -> line.startsWith(prefix))
+                .map(line -> line.substring(prefix.length()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void exportBooks_ShouldStreamCsv() throws Exception {
+        Book book = bookRepository.save(new Book("Title, \"quoted\"", "Author"));
+
+        mockMvc.perform(get("/books/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,title,author,version\n" + book.getId() + ",\"Title, \"\"quoted\"\"\",Author,0\n"));
+    }
+
+    @Test
+    void exportBooks_ShouldReturnBadRequest_WhenFormatIsUnknown() throws Exception {
+        mockMvc.perform(get("/books/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
+    @Test
+    @Timeout(value = 60, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void exportBooks_ShouldNotHoldConnection_WhileClientIsSlow() throws Exception {
+        String padding = "x".repeat(200);
+        bookRepository.saveAll(IntStream.range(0, 30_000)
+                .mapToObj(i -> new Book(padding + i, "author"))
+                .toList());
+        Gauge activeConnections = meterRegistry.get("hikaricp.connections.active").gauge();
+
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", port));
+            socket.getOutputStream().write("GET /books/export?format=csv HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            Assertions.assertThat(new String(socket.getInputStream().readNBytes(12), StandardCharsets.US_ASCII))
+                    .isEqualTo("HTTP/1.1 200");
+
+            // The client stops reading, so the export blocks on the full socket buffers half-way through the ~7 MB.
+            Thread.sleep(1000);
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertThat(activeConnections.value()).isZero();
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    @Test
+    void searchBooks_ShouldRankFullTextMatchesFirst() throws Exception {
+        bookRepository.save(new Book("War and Peace", "Leo Tolstoy"));
+        bookRepository.save(new Book("Anna Karenina", "Leo Tolstoy"));
+        bookRepository.save(new Book("Crime and Punishment", "Fyodor Dostoevsky"));
+
+        mockMvc.perform(get("/books/search").param("q", "tolstoy war"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("War and Peace"))
+                .andExpect(jsonPath("$.items[*].author").value(not(hasItem("Fyodor Dostoevsky"))))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void searchBooks_ShouldTolerateTypos() throws Exception {
+        bookRepository.save(new Book("Crime and Punishment", "Fyodor Dostoevsky"));
+        bookRepository.save(new Book("War and Peace", "Leo Tolstoy"));
+
+        mockMvc.perform(get("/books/search").param("q", "Dostoevksy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].title").value("Crime and Punishment"));
+    }
+
+    @Test
+    void searchBooks_ShouldPaginate() throws Exception {
+        bookRepository.save(new Book("Book 1", "Leo Tolstoy"));
+        bookRepository.save(new Book("Book 2", "Leo Tolstoy"));
+        bookRepository.save(new Book("Book 3", "Leo Tolstoy"));
+
+        mockMvc.perform(get("/books/search").param("q", "tolstoy").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        mockMvc.perform(get("/books/search").param("q", "tolstoy").param("size", "2").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void searchBooks_ShouldReturnBadRequest_WhenQueryIsBlank() throws Exception {
+        mockMvc.perform(get("/books/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
     }
 
     @Test
@@ -81,6 +443,206 @@ public class BookControllerIntegrationTest {
         Assertions.assertThat(bookRepository.findById(savedBook.getId())).get().isEqualTo(savedBook);
     }
 
+    @Test
+    void getBookById_ShouldServeFromCache_WhenRequestedTwice() throws Exception {
+        Book savedBook = bookRepository.save(new Book("title1", "author1"));
+
+        mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(status().isOk());
+        bookRepository.deleteById(savedBook.getId());
+
+        mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(savedBook.getTitle()));
+
+        mockMvc.perform(get("/caches/{name}/stats", CacheConfig.BOOKS_CACHE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(CacheConfig.BOOKS_CACHE))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.hitCount").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.missCount").value(greaterThanOrEqualTo(1)));
+    }
+
+    @Test
+    void getBookById_ShouldReturnFreshBook_AfterUpdate() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+
+        mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(jsonPath("$.title").value("Title"));
+
+        mockMvc.perform(put("/books/{id}", savedBook.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPutDTO("TitleUpdated", "Author"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("TitleUpdated"));
+    }
+
+    @Test
+    void getBookById_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+
+        String etag = mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/books/{id}", savedBook.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateBookById_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+
+        mockMvc.perform(put("/books/{id}", savedBook.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPutDTO("Title 2", "Author"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(patch("/books/{id}", savedBook.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPatchDTO("Title 3", null))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorCode").value("PRECONDITION_FAILED"));
+
+        mockMvc.perform(delete("/books/{id}", savedBook.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        Assertions.assertThat(bookRepository.findById(savedBook.getId())).get()
+                .extracting(Book::getTitle)
+                .isEqualTo("Title 2");
+    }
+
+    @Test
+    void deleteBookById_ShouldReturnPreconditionFailed_WhenIfMatchIsWeak() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+
+        mockMvc.perform(delete("/books/{id}", savedBook.getId())
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\", \"other\""))
+                .andExpect(status().isPreconditionFailed());
+
+        Assertions.assertThat(bookRepository.existsById(savedBook.getId())).isTrue();
+    }
+
+    @Test
+    void patchBook_ShouldApply_WhenAnyIfMatchTagMatches() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+
+        mockMvc.perform(patch("/books/{id}", savedBook.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"7\", W/\"1\", \"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPatchDTO("Title 2", null))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    void deleteBookById_ShouldReturnBadRequest_WhenIfMatchIsMalformed() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+
+        mockMvc.perform(delete("/books/{id}", savedBook.getId())
+                        .header(HttpHeaders.IF_MATCH, "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBooks_ShouldReturnNotModified_UntilCatalogChanges() throws Exception {
+        bookRepository.save(new Book("title1", "author1"));
+
+        String etag = mockMvc.perform(get("/books/"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/books/").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/books/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPostDTO("title2", "author2"))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/books/").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.items", hasSize(2)));
+    }
+
+    @Test
+    void getMethodLatencies_ShouldReportTracedServiceCalls() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+
+        mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/books/{id}", 999L))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/tracing/methods"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.method == 'BookService.getBookById')].calls").value(hasItem(greaterThanOrEqualTo(2))))
+                .andExpect(jsonPath("$[?(@.method == 'BookService.getBookById')].failures").value(hasItem(greaterThanOrEqualTo(1))));
+    }
+
+    @Test
+    void prometheus_ShouldExposeEndpointServicePoolHibernateAndCacheMetrics() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+        mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/books/{id}\"")))
+                .andExpect(content().string(containsString("library_service_calls_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"getBookById\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket{")))
+                .andExpect(content().string(containsString("hikaricp_connections_usage_seconds_bucket{")))
+                .andExpect(content().string(containsString("hibernate_statements_total{")))
+                .andExpect(content().string(containsString("hibernate_entities_loads_total{")))
+                .andExpect(content().string(containsString("hibernate_flushes_total{")))
+                .andExpect(content().string(containsString("cache_gets_total{")))
+                .andExpect(content().string(containsString("library_logging_events_dropped_total{")));
+    }
+
+    @Test
+    void readEndpoints_ShouldNotLoadEntities() throws Exception {
+        Book savedBook = bookRepository.save(new Book("Title", "Author"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/books/{id}", savedBook.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(0));
+        mockMvc.perform(get("/books/").param("sort", "title")
+                        .param("after", new BookCursor(BookSortKey.TITLE, savedBook.getId(), "A").encode()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/books/search").param("q", "Title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(savedBook.getId()));
+        mockMvc.perform(get("/books/export"))
+                .andExpect(status().isOk());
+
+        Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void getCacheStats_ShouldReturnNotFound_WhenCacheDoesNotExist() throws Exception {
+        mockMvc.perform(get("/caches/{name}/stats", "unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode").value("NOT_FOUND"));
+    }
+
     @Test
     void getBookById_ShouldReturnNotFound_WhenBookDoesNotExist() throws Exception {
         mockMvc.perform(get("/books/{id}", 999)
@@ -91,6 +653,21 @@ public class BookControllerIntegrationTest {
         Assertions.assertThat(bookRepository.findById(999L)).isNotPresent();
     }
 
+    @Test
+    void getBookById_ShouldReturnRequestId_WhenRequestFails() throws Exception {
+        mockMvc.perform(get("/books/{id}", 999)
+                        .header(RequestIdFilter.HEADER, "client-request-1"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(RequestIdFilter.HEADER, "client-request-1"))
+                .andExpect(jsonPath("$.requestId").value("client-request-1"));
+
+        mockMvc.perform(get("/books/{id}", 999)
+                        .header(RequestIdFilter.HEADER, "not a valid id\u0000"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(RequestIdFilter.HEADER, matchesPattern("[0-9a-f-]{36}")))
+                .andExpect(jsonPath("$.requestId").value(matchesPattern("[0-9a-f-]{36}")));
+    }
+
     @Test
     void getBookById_ShouldReturnBadRequest_WhenParameterIsInvalid() throws Exception {
         mockMvc.perform(get("/books/{id}", "abc")
@@ -108,7 +685,7 @@ public class BookControllerIntegrationTest {
     @Test
     void addBook_ShouldReturnCreated_WhenValid() throws Exception {
         BookPostDTO postDTO = new BookPostDTO("Title", "Author");
-        BookDTO responseDTO = new BookDTO(1L, "Title", "Author");
+        BookDTO responseDTO = new BookDTO(1L, "Title", "Author", 0L);
         String json = objectMapper.writeValueAsString(postDTO);
 
         mockMvc.perform(post("/books/")
@@ -183,6 +760,217 @@ public class BookControllerIntegrationTest {
         Assertions.assertThat(bookRepository.count()).isEqualTo(1);
     }
 
+    @Test
+    void addBook_ShouldReturnCreated_WhenOnlyTitleIsTaken() throws Exception {
+        bookRepository.save(new Book("Title", "Author"));
+
+        String json = objectMapper.writeValueAsString(new BookPostDTO("Title", "Another Author"));
+
+        mockMvc.perform(post("/books/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.author").value("Another Author"));
+
+        Assertions.assertThat(bookRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void updateBookById_ShouldReturnConflict_WhenBookWithSameAuthorAndTitleExists() throws Exception {
+        bookRepository.save(new Book("Title", "Author"));
+        Book savedBook = bookRepository.save(new Book("Other", "Author"));
+
+        String json = objectMapper.writeValueAsString(new BookPutDTO("Title", "Author"));
+
+        mockMvc.perform(put("/books/{id}", savedBook.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorCode").value("CONFLICT"));
+    }
+
+    @Test
+    void addBooks_ShouldReturnPerItemResults() throws Exception {
+        bookRepository.save(new Book("Existing", "Author"));
+        String json = objectMapper.writeValueAsString(List.of(
+                new BookPostDTO("Title1", "Author1"),
+                new BookPostDTO("Existing", "Author"),
+                new BookPostDTO("", "Author3"),
+                new BookPostDTO("Title4", "Author4")));
+
+        mockMvc.perform(post("/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status").value(contains("CREATED", "DUPLICATE", "INVALID", "CREATED")))
+                .andExpect(jsonPath("$[0].book.id").exists())
+                .andExpect(jsonPath("$[2].fieldErrors[0].field").value("title"));
+
+        Assertions.assertThat(bookRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void addBooks_ShouldReturnBadRequest_WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post("/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void patchBooks_ShouldReturnPerItemResults() throws Exception {
+        Book first = bookRepository.save(new Book("Title1", "Author1"));
+        Book second = bookRepository.save(new Book("Title2", "Author2"));
+        Book third = bookRepository.save(new Book("Title3", "Author3"));
+        String json = objectMapper.writeValueAsString(List.of(
+                new BookPatchItemDTO(first.getId(), null, new BookPatchDTO("New Title", null)),
+                new BookPatchItemDTO(second.getId(), second.getVersion() + 1, new BookPatchDTO("Title", null)),
+                new BookPatchItemDTO(third.getId(), null, new BookPatchDTO("Title2", "Author2")),
+                new BookPatchItemDTO(third.getId() + 100, null, new BookPatchDTO(null, "Author")),
+                new BookPatchItemDTO(third.getId(), null, new BookPatchDTO("", " "))));
+
+        mockMvc.perform(patch("/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status").value(contains("UPDATED", "MODIFIED", "DUPLICATE", "NOT_FOUND", "INVALID")))
+                .andExpect(jsonPath("$[0].book.title").value("New Title"))
+                .andExpect(jsonPath("$[0].book.author").value("Author1"))
+                .andExpect(jsonPath("$[0].book.version").value(first.getVersion() + 1));
+
+        mockMvc.perform(get("/books/{id}", first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("New Title"));
+        Assertions.assertThat(bookRepository.findById(second.getId()).orElseThrow().getTitle()).isEqualTo("Title2");
+    }
+
+    @Test
+    @Timeout(value = 30, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void patchBooks_ShouldReportDuplicate_WhenPairIsTakenConcurrently() throws Exception {
+        Book first = bookRepository.save(new Book("Title1", "Author1"));
+        Book second = bookRepository.save(new Book("Title2", "Author2"));
+        String json = objectMapper.writeValueAsString(List.of(
+                new BookPatchItemDTO(first.getId(), null, new BookPatchDTO("New Title", null)),
+                new BookPatchItemDTO(second.getId(), null, new BookPatchDTO("Taken Title", null))));
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("""
+                        INSERT INTO book (book_id, book_title, book_author, book_version)
+                        VALUES (nextval('book_seq'), 'Taken Title', 'Author2', 0)""");
+            }
+            // The batch does not see the uncommitted book, so its update waits on the unique index until the commit.
+            CompletableFuture<ResultActions> response = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return mockMvc.perform(patch("/books/batch")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(json));
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+            JdbcTemplate monitor = new JdbcTemplate(dataSource);
+            while (monitor.queryForObject("SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'",
+                    Integer.class) == 0) {
+                Thread.sleep(50);
+            }
+            connection.commit();
+
+            response.get()
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].status").value(contains("UPDATED", "DUPLICATE")))
+                    .andExpect(jsonPath("$[0].book.title").value("New Title"));
+        }
+        Assertions.assertThat(bookRepository.findById(first.getId()).orElseThrow().getTitle()).isEqualTo("New Title");
+        Assertions.assertThat(bookRepository.findById(second.getId()).orElseThrow().getTitle()).isEqualTo("Title2");
+    }
+
+    @Test
+    void patchBooks_ShouldReturnBadRequest_WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(patch("/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void addBook_ShouldReplayResponse_WhenIdempotencyKeyIsRepeated() throws Exception {
+        String json = objectMapper.writeValueAsString(new BookPostDTO("Title", "Author"));
+        String created = mockMvc.perform(post("/books/")
+                        .header(IdempotencyKeyFilter.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyKeyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/books/")
+                        .header(IdempotencyKeyFilter.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyKeyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(created, true));
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isZero();
+        Assertions.assertThat(bookRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void addBook_ShouldReturnUnprocessableEntity_WhenIdempotencyKeyIsReusedForAnotherBody() throws Exception {
+        mockMvc.perform(post("/books/")
+                        .header(IdempotencyKeyFilter.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPostDTO("Title", "Author"))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/books/")
+                        .header(IdempotencyKeyFilter.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPostDTO("Other Title", "Author"))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("IDEMPOTENCY_KEY_REUSED"));
+
+        Assertions.assertThat(bookRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void addBook_ShouldReturnBadRequest_WhenIdempotencyKeyIsInvalid() throws Exception {
+        mockMvc.perform(post("/books/")
+                        .header(IdempotencyKeyFilter.HEADER, "a".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookPostDTO("Title", "Author"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+
+        Assertions.assertThat(bookRepository.count()).isZero();
+    }
+
+    @Test
+    void patchBooks_ShouldReplayResponse_WhenIdempotencyKeyIsRepeated() throws Exception {
+        Book book = bookRepository.save(new Book("Title", "Author"));
+        String json = objectMapper.writeValueAsString(List.of(
+                new BookPatchItemDTO(book.getId(), book.getVersion(), new BookPatchDTO("New Title", null))));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(patch("/books/batch")
+                            .header(IdempotencyKeyFilter.HEADER, "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                    .andExpect(jsonPath("$[0].book.version").value(book.getVersion() + 1));
+        }
+
+        Assertions.assertThat(bookRepository.findById(book.getId()).orElseThrow().getVersion()).isEqualTo(book.getVersion() + 1);
+    }
+
     @Test
     void deleteBookById_ShouldReturnOk_WhenBookIsDeleted() throws Exception {
         Book savedBook = bookRepository.save(new Book("Title", "Author"));
@@ -221,6 +1009,27 @@ public class BookControllerIntegrationTest {
                 .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
     }
 
+    @Test
+    void deleteBooks_ShouldDeleteExistingBooks() throws Exception {
+        Book first = bookRepository.save(new Book("Title1", "Author"));
+        Book second = bookRepository.save(new Book("Title2", "Author"));
+        Book kept = bookRepository.save(new Book("Title3", "Author"));
+
+        mockMvc.perform(delete("/books/")
+                        .param("ids", first.getId() + "," + second.getId() + ",999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        Assertions.assertThat(bookRepository.findAll()).containsExactly(kept);
+    }
+
+    @Test
+    void deleteBooks_ShouldReturnBadRequest_WhenIdsAreMissing() throws Exception {
+        mockMvc.perform(delete("/books/"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
     @Test
     void updateBookById_ShouldReturnOk_WhenBookIsUpdated() throws Exception {
         Book savedBook = bookRepository.save(new Book("Title", "Author"));
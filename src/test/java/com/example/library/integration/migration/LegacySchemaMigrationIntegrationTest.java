@@ -0,0 +1,92 @@
+package com.example.library.integration.migration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Starts the application on a database that ddl-auto=update created from the original mapping, before Flyway
+ * managed the schema, and checks that the migrations bring it to the schema the entity is validated against.
+ */
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LegacySchemaMigrationIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:17")
+            .withDatabaseName("test")
+            .withUsername("test")
+            .withPassword("test")
+            .withInitScript("db/legacy-schema.sql");
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_ShouldBaselineLegacySchema_AndApplyEveryVersion() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        Assertions.assertThat(versions).containsExactly("0", "1", "2", "3", "4");
+    }
+
+    @Test
+    void migrations_ShouldKeepExistingBooks_AtVersionZero() throws Exception {
+        mockMvc.perform(get("/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.title").value("War and Peace"))
+                .andExpect(jsonPath("$.version").value(0));
+
+        mockMvc.perform(patch("/books/2")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"author\": \"F. M. Dostoevsky\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.author").value("F. M. Dostoevsky"));
+    }
+
+    @Test
+    void migrations_ShouldReplaceTitleOnlyConstraint_WithAuthorAndTitle() throws Exception {
+        List<String> constraints = jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = 'book'::regclass AND contype = 'u'", String.class);
+        Assertions.assertThat(constraints).containsExactly("uk_book_author_title");
+
+        mockMvc.perform(post("/books/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"War and Peace\", \"author\": \"Another Author\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", greaterThan(51)))
+                .andExpect(jsonPath("$.version").value(0));
+    }
+}
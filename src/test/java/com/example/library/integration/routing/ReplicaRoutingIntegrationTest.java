@@ -0,0 +1,156 @@
+package com.example.library.integration.routing;
+
+import com.example.library.config.CacheConfig;
+import com.example.library.config.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the application with a replica that holds different data than the primary, so every response shows which
+ * database served it. Each transaction must pick its database on its own, even when an earlier transaction of the
+ * same request went to the other one.
+ */
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReplicaRoutingIntegrationTest {
+    private static final long BOOK_ID = 1;
+
+    @Container
+    private static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:17")
+            .withDatabaseName("test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    private static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:17")
+            .withDatabaseName("test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static JdbcTemplate replicaJdbcTemplate;
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("library.datasource.routing.enabled", () -> "true");
+        registry.add("library.datasource.routing.replicas[0].url", replica::getJdbcUrl);
+        registry.add("library.datasource.routing.replicas[0].username", replica::getUsername);
+        registry.add("library.datasource.routing.replicas[0].password", replica::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        replicaJdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private JdbcTemplate primaryJdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        insertBook(primaryJdbcTemplate, "Primary title");
+        insertBook(replicaJdbcTemplate, "Replica title");
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).clear();
+    }
+
+    private static void insertBook(JdbcTemplate jdbcTemplate, String title) {
+        jdbcTemplate.update("DELETE FROM book");
+        jdbcTemplate.update("INSERT INTO book (book_id, book_title, book_author, book_version) VALUES (?, ?, 'Author', 0)",
+                BOOK_ID, title);
+    }
+
+    @Test
+    void getBooks_ShouldReadPageFromReplica_AfterReadingCounterFromPrimary() throws Exception {
+        mockMvc.perform(get("/books/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Replica title"));
+    }
+
+    @Test
+    void exportBooks_ShouldReadFromReplica() throws Exception {
+        mockMvc.perform(get("/books/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,title,author,version\n" + BOOK_ID + ",Replica title,Author,0\n"));
+    }
+
+    @Test
+    void searchBooks_ShouldReadFromReplica() throws Exception {
+        mockMvc.perform(get("/books/search").param("q", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Replica title"));
+    }
+
+    @Test
+    void getBookById_ShouldReadCacheMissFromPrimary() throws Exception {
+        mockMvc.perform(get("/books/{id}", BOOK_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Primary title"));
+    }
+
+    @Test
+    void patchBook_ShouldWriteToPrimary_AndPinOnlyTheWritingClient() throws Exception {
+        Cookie pin = mockMvc.perform(patch("/books/{id}", BOOK_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"author\": \"New author\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Primary title"))
+                .andExpect(jsonPath("$.author").value("New author"))
+                .andExpect(cookie().exists(ReadYourWritesTracker.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWritesTracker.COOKIE);
+
+        Assertions.assertThat(primaryJdbcTemplate.queryForObject("SELECT book_author FROM book", String.class))
+                .isEqualTo("New author");
+        Assertions.assertThat(replicaJdbcTemplate.queryForObject("SELECT book_author FROM book", String.class))
+                .isEqualTo("Author");
+
+        mockMvc.perform(get("/books/").cookie(pin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].author").value("New author"));
+        mockMvc.perform(get("/books/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].author").value("Author"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.library.unit.config;
+
+import com.example.library.config.LibraryRuntimeHints;
+import com.example.library.exception.ErrorResponse;
+import com.example.library.logging.BookServiceLoggingAspect;
+import com.example.library.model.Book;
+import com.example.library.model.BookBatchItemResult;
+import com.example.library.model.BookDTO;
+import com.example.library.model.BookPatchDTO;
+import com.example.library.model.BookPostDTO;
+import com.example.library.service.BookService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class LibraryRuntimeHintsTest {
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setup() {
+        hints = new RuntimeHints();
+        new LibraryRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_ShouldRegisterRecordAccessors_ForJsonBinding() throws NoSuchMethodException {
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(BookDTO.class.getMethod("title")).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(BookBatchItemResult.class.getMethod("fieldErrors")).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ErrorResponse.class.getMethod("requestId")).test(hints));
+    }
+
+    @Test
+    void registerHints_ShouldRegisterEverySubtypeOfBookInput() {
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(BookPostDTO.class).withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(BookPatchDTO.class).withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    void registerHints_ShouldRegisterEntityAndAspects() throws NoSuchMethodException {
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(Book.class).withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(BookServiceLoggingAspect.class).withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(BookService.class.getMethod("getBookById", Long.class)).test(hints));
+    }
+}
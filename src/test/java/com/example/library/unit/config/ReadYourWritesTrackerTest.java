@@ -0,0 +1,64 @@
+package com.example.library.unit.config;
+
+import com.example.library.config.ReadYourWritesTracker;
+import com.example.library.model.BookChangedEvent;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+
+class ReadYourWritesTrackerTest {
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(2));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getAsBoolean_ShouldPinOnlyWritingClient_AfterChange() {
+        MockHttpServletResponse writerResponse = new MockHttpServletResponse();
+        startRequest(new MockHttpServletRequest(), writerResponse);
+        tracker.onBookChanged(BookChangedEvent.deleted(List.of(1L)));
+
+        Assertions.assertTrue(tracker.getAsBoolean());
+        Cookie cookie = writerResponse.getCookie(ReadYourWritesTracker.COOKIE);
+        Assertions.assertNotNull(cookie, writerResponse.getHeader(HttpHeaders.SET_COOKIE));
+
+        startRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        Assertions.assertFalse(tracker.getAsBoolean());
+
+        MockHttpServletRequest writerRequest = new MockHttpServletRequest();
+        writerRequest.setCookies(new Cookie(ReadYourWritesTracker.COOKIE, cookie.getValue()));
+        startRequest(writerRequest, new MockHttpServletResponse());
+        Assertions.assertTrue(tracker.getAsBoolean());
+    }
+
+    @Test
+    void getAsBoolean_ShouldNotPin_WhenCookieHasExpired() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWritesTracker.COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        startRequest(request, new MockHttpServletResponse());
+
+        Assertions.assertFalse(tracker.getAsBoolean());
+    }
+
+    @Test
+    void getAsBoolean_ShouldNotPin_OutsideRequest() {
+        tracker.onBookChanged(BookChangedEvent.deleted(List.of(1L)));
+
+        Assertions.assertFalse(tracker.getAsBoolean());
+    }
+
+    private static void startRequest(MockHttpServletRequest request, MockHttpServletResponse response) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+}
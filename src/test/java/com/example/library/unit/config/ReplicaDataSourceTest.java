@@ -0,0 +1,95 @@
+package com.example.library.unit.config;
+
+import com.example.library.config.ReplicaDataSource;
+import com.example.library.logging.LoggerProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ReplicaDataSourceTest {
+    private DataSource primary;
+    private DataSource firstReplica;
+    private DataSource secondReplica;
+    private Connection primaryConnection;
+    private Connection firstConnection;
+    private Connection secondConnection;
+    private AtomicBoolean primaryRequired;
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        primary = Mockito.mock(DataSource.class);
+        firstReplica = Mockito.mock(DataSource.class);
+        secondReplica = Mockito.mock(DataSource.class);
+        primaryConnection = Mockito.mock(Connection.class);
+        firstConnection = Mockito.mock(Connection.class);
+        secondConnection = Mockito.mock(Connection.class);
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(firstReplica.getConnection()).thenReturn(firstConnection);
+        Mockito.when(secondReplica.getConnection()).thenReturn(secondConnection);
+
+        primaryRequired = new AtomicBoolean();
+        replicaDataSource = new ReplicaDataSource(List.of(firstReplica, secondReplica), primary, Duration.ofMinutes(1),
+                primaryRequired::get, new LoggerProvider());
+    }
+
+    @Test
+    void getConnection_ShouldAlternateReplicas() throws SQLException {
+        Assertions.assertSame(firstConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(secondConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(firstConnection, replicaDataSource.getConnection());
+        Mockito.verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_ShouldEjectFailingReplica() throws SQLException {
+        Mockito.when(firstReplica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+
+        Assertions.assertSame(secondConnection, replicaDataSource.getConnection());
+        Assertions.assertTrue(replicaDataSource.isEjected(0));
+        Assertions.assertSame(secondConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(secondConnection, replicaDataSource.getConnection());
+        Mockito.verify(firstReplica, Mockito.times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_WhenAllReplicasFail() throws SQLException {
+        Mockito.when(firstReplica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        Mockito.when(secondReplica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+
+        Assertions.assertSame(primaryConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(primaryConnection, replicaDataSource.getConnection());
+        Mockito.verify(firstReplica, Mockito.times(1)).getConnection();
+        Mockito.verify(secondReplica, Mockito.times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_WhenReadYourWritesIsRequired() throws SQLException {
+        primaryRequired.set(true);
+
+        Assertions.assertSame(primaryConnection, replicaDataSource.getConnection());
+        Mockito.verifyNoInteractions(firstReplica, secondReplica);
+    }
+
+    @Test
+    void getConnection_ShouldRetryEjectedReplica_AfterEjectDuration() throws SQLException {
+        replicaDataSource = new ReplicaDataSource(List.of(firstReplica), primary, Duration.ZERO,
+                primaryRequired::get, new LoggerProvider());
+        Mockito.when(firstReplica.getConnection())
+                .thenThrow(new SQLTransientConnectionException("down"))
+                .thenReturn(firstConnection);
+
+        Assertions.assertSame(primaryConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(firstConnection, replicaDataSource.getConnection());
+        Assertions.assertFalse(replicaDataSource.isEjected(0));
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.library.unit.service;
+
+import com.example.library.model.*;
+import com.example.library.repository.BookKeyOwner;
+import com.example.library.repository.BookRepository;
+import com.example.library.service.BookBatchService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class BookBatchServiceTest {
+    private BookBatchService bookBatchService;
+    private BookRepository bookRepository;
+    private ValidatorFactory validatorFactory;
+    private Set<List<String>> existingBooks;
+    private Set<List<String>> takenConcurrently;
+
+    @BeforeEach
+    void setup() {
+        bookRepository = Mockito.mock(BookRepository.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        bookBatchService = new BookBatchService(bookRepository, validatorFactory.getValidator(), Mockito.mock(ApplicationEventPublisher.class));
+
+        // insertAllIfAbsent skips the author and title pairs in existingBooks, like ON CONFLICT DO NOTHING
+        existingBooks = new HashSet<>();
+        AtomicLong ids = new AtomicLong();
+        Mockito.when(bookRepository.insertAllIfAbsent(any(), any())).thenAnswer(invocation -> {
+            String[] titles = invocation.getArgument(0);
+            String[] authors = invocation.getArgument(1);
+            List<Book> inserted = new ArrayList<>();
+            for (int i = 0; i < titles.length; i++) {
+                if (existingBooks.add(List.of(authors[i], titles[i]))) {
+                    inserted.add(new Book(ids.incrementAndGet(), titles[i], authors[i], 0L));
+                }
+            }
+            return inserted.reversed();
+        });
+
+        // updateAllIfAbsent bumps the version of every book, except the ones whose new pair is in takenConcurrently
+        takenConcurrently = new HashSet<>();
+        Mockito.when(bookRepository.updateAllIfAbsent(any(), any(), any())).thenAnswer(invocation -> {
+            Long[] bookIds = invocation.getArgument(0);
+            String[] titles = invocation.getArgument(1);
+            String[] authors = invocation.getArgument(2);
+            List<BookDTO> updated = new ArrayList<>();
+            for (int i = 0; i < bookIds.length; i++) {
+                if (!takenConcurrently.contains(List.of(authors[i], titles[i]))) {
+                    updated.add(new BookDTO(bookIds[i], titles[i], authors[i], 1L));
+                }
+            }
+            return updated.reversed();
+        });
+    }
+
+    private static List<BookKeyOwner> owners(Book... books) {
+        return Arrays.stream(books).map(book -> (BookKeyOwner) new BookKeyOwner() {
+            @Override
+            public Long getId() {
+                return book.getId();
+            }
+
+            @Override
+            public String getAuthor() {
+                return book.getAuthor();
+            }
+
+            @Override
+            public String getTitle() {
+                return book.getTitle();
+            }
+        }).toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void addBooks_ShouldCreateAllBooks_WhenAllAreValid() {
+        List<BookBatchItemResult> results = bookBatchService.addBooks(List.of(
+                new BookPostDTO("Book 1", "Author 1"),
+                new BookPostDTO("Book 2", "Author 2")));
+
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(BookBatchItemStatus.CREATED, results.get(0).status());
+        Assertions.assertEquals(new BookDTO(1L, "Book 1", "Author 1", 0L), results.get(0).book());
+        Assertions.assertEquals(BookBatchItemStatus.CREATED, results.get(1).status());
+        Assertions.assertEquals(new BookDTO(2L, "Book 2", "Author 2", 0L), results.get(1).book());
+
+        Mockito.verify(bookRepository, Mockito.times(1))
+                .insertAllIfAbsent(new String[]{"Book 1", "Book 2"}, new String[]{"Author 1", "Author 2"});
+        Mockito.verify(bookRepository, Mockito.never()).findKeyOwners(any(), any());
+        Mockito.verify(bookRepository, Mockito.never()).saveAll(anyList());
+    }
+
+    @Test
+    void addBooks_ShouldReportEachItem_WhenBatchIsMixed() {
+        existingBooks.add(List.of("Author", "Existing"));
+
+        List<BookBatchItemResult> results = bookBatchService.addBooks(Arrays.asList(
+                new BookPostDTO("Book 1", "Author 1"),
+                new BookPostDTO("", "Author 2"),
+                new BookPostDTO("Existing", "Author"),
+                new BookPostDTO("Book 1", "Author 1"),
+                null));
+
+        Assertions.assertEquals(5, results.size());
+        Assertions.assertEquals(BookBatchItemStatus.CREATED, results.get(0).status());
+        Assertions.assertEquals(BookBatchItemStatus.INVALID, results.get(1).status());
+        Assertions.assertEquals("title", results.get(1).fieldErrors().getFirst().field());
+        Assertions.assertEquals(BookBatchItemStatus.DUPLICATE, results.get(2).status());
+        Assertions.assertEquals(BookBatchItemStatus.DUPLICATE, results.get(3).status());
+        Assertions.assertEquals(BookBatchItemStatus.INVALID, results.get(4).status());
+        for (int i = 0; i < results.size(); i++) {
+            Assertions.assertEquals(i, results.get(i).index());
+        }
+    }
+
+    @Test
+    void addBooks_ShouldCreateBook_WhenOnlyTitleMatchesExistingBook() {
+        existingBooks.add(List.of("Author", "Existing"));
+
+        List<BookBatchItemResult> results = bookBatchService.addBooks(List.of(
+                new BookPostDTO("Existing", "Another Author")));
+
+        Assertions.assertEquals(BookBatchItemStatus.CREATED, results.getFirst().status());
+    }
+
+    @Test
+    void addBooks_ShouldReportDuplicate_WhenConcurrentRequestInsertedBookFirst() {
+        // not visible to any check before the insert: only the INSERT itself runs into the conflict
+        existingBooks.add(List.of("Author 2", "Book 2"));
+
+        List<BookBatchItemResult> results = bookBatchService.addBooks(List.of(
+                new BookPostDTO("Book 1", "Author 1"),
+                new BookPostDTO("Book 2", "Author 2"),
+                new BookPostDTO("Book 3", "Author 3")));
+
+        Assertions.assertEquals(BookBatchItemStatus.CREATED, results.get(0).status());
+        Assertions.assertEquals("Book 1", results.get(0).book().title());
+        Assertions.assertEquals(BookBatchItemStatus.DUPLICATE, results.get(1).status());
+        Assertions.assertEquals(BookBatchItemStatus.CREATED, results.get(2).status());
+        Assertions.assertEquals("Book 3", results.get(2).book().title());
+    }
+
+    @Test
+    void addBooks_ShouldNotQueryDatabase_WhenAllItemsAreInvalid() {
+        List<BookBatchItemResult> results = bookBatchService.addBooks(List.of(new BookPostDTO(null, null)));
+
+        Assertions.assertEquals(BookBatchItemStatus.INVALID, results.getFirst().status());
+        Assertions.assertEquals(2, results.getFirst().fieldErrors().size());
+
+        Mockito.verify(bookRepository, Mockito.never()).insertAllIfAbsent(any(), any());
+    }
+
+    @Test
+    void patchBooks_ShouldApplyBlankFieldSemantics_WhenItemsAreValid() {
+        Book first = new Book(1L, "Title 1", "Author 1", 0L);
+        Book second = new Book(2L, "Title 2", "Author 2", 4L);
+        Mockito.when(bookRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(first, second));
+        Mockito.when(bookRepository.findKeyOwners(any(), any())).thenReturn(List.of());
+
+        List<BookBatchItemResult> results = bookBatchService.patchBooks(List.of(
+                new BookPatchItemDTO(1L, null, new BookPatchDTO("New Title", " ")),
+                new BookPatchItemDTO(2L, 4L, new BookPatchDTO(null, "New Author"))));
+
+        Assertions.assertEquals(BookBatchItemStatus.UPDATED, results.get(0).status());
+        Assertions.assertEquals(new BookDTO(1L, "New Title", "Author 1", 1L), results.get(0).book());
+        Assertions.assertEquals(BookBatchItemStatus.UPDATED, results.get(1).status());
+        Assertions.assertEquals(new BookDTO(2L, "Title 2", "New Author", 1L), results.get(1).book());
+
+        Mockito.verify(bookRepository, Mockito.times(1)).findAllForUpdateByIdIn(Set.of(1L, 2L));
+        Mockito.verify(bookRepository, Mockito.times(1)).findKeyOwners(any(), any());
+        Mockito.verify(bookRepository, Mockito.times(1)).updateAllIfAbsent(
+                new Long[]{1L, 2L}, new String[]{"New Title", "Title 2"}, new String[]{"Author 1", "New Author"});
+    }
+
+    @Test
+    void patchBooks_ShouldReportEachItem_WhenBatchIsMixed() {
+        Book first = new Book(1L, "Title 1", "Author 1", 0L);
+        Book second = new Book(2L, "Title 2", "Author 2", 3L);
+        Book third = new Book(3L, "Title 3", "Author 3", 0L);
+        Mockito.when(bookRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(first, second, third));
+        Mockito.when(bookRepository.findKeyOwners(any(), any())).thenReturn(owners(third));
+
+        List<BookBatchItemResult> results = bookBatchService.patchBooks(Arrays.asList(
+                new BookPatchItemDTO(1L, null, new BookPatchDTO("Title 3", "Author 3")),
+                new BookPatchItemDTO(2L, 2L, new BookPatchDTO("Title", null)),
+                new BookPatchItemDTO(4L, null, new BookPatchDTO("Title", null)),
+                new BookPatchItemDTO(3L, null, new BookPatchDTO("", null)),
+                new BookPatchItemDTO(1L, null, new BookPatchDTO("Title", null)),
+                null));
+
+        Assertions.assertEquals(BookBatchItemStatus.DUPLICATE, results.get(0).status());
+        Assertions.assertEquals(BookBatchItemStatus.MODIFIED, results.get(1).status());
+        Assertions.assertEquals(BookBatchItemStatus.NOT_FOUND, results.get(2).status());
+        Assertions.assertEquals(BookBatchItemStatus.INVALID, results.get(3).status());
+        Assertions.assertEquals("patch", results.get(3).fieldErrors().getFirst().field());
+        Assertions.assertEquals(BookBatchItemStatus.INVALID, results.get(4).status());
+        Assertions.assertEquals("id", results.get(4).fieldErrors().getFirst().field());
+        Assertions.assertEquals(BookBatchItemStatus.INVALID, results.get(5).status());
+        for (int i = 0; i < results.size(); i++) {
+            Assertions.assertEquals(i, results.get(i).index());
+        }
+        Assertions.assertEquals("Title 1", first.getTitle());
+        Assertions.assertEquals("Title 2", second.getTitle());
+    }
+
+    @Test
+    void patchBooks_ShouldRejectSecondItem_WhenTwoItemsTargetSameAuthorAndTitle() {
+        Mockito.when(bookRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(
+                new Book(1L, "Title 1", "Author", 0L),
+                new Book(2L, "Title 2", "Author", 0L)));
+        Mockito.when(bookRepository.findKeyOwners(any(), any())).thenReturn(List.of());
+
+        List<BookBatchItemResult> results = bookBatchService.patchBooks(List.of(
+                new BookPatchItemDTO(1L, null, new BookPatchDTO("Title", null)),
+                new BookPatchItemDTO(2L, null, new BookPatchDTO("Title", null))));
+
+        Assertions.assertEquals(BookBatchItemStatus.UPDATED, results.get(0).status());
+        Assertions.assertEquals(BookBatchItemStatus.DUPLICATE, results.get(1).status());
+    }
+
+    @Test
+    void patchBooks_ShouldReportDuplicate_WhenPairIsTakenConcurrently() {
+        Mockito.when(bookRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(
+                new Book(1L, "Title 1", "Author", 0L),
+                new Book(2L, "Title 2", "Author", 0L)));
+        Mockito.when(bookRepository.findKeyOwners(any(), any())).thenReturn(List.of());
+        takenConcurrently.add(List.of("Author", "Taken"));
+
+        List<BookBatchItemResult> results = bookBatchService.patchBooks(List.of(
+                new BookPatchItemDTO(1L, null, new BookPatchDTO("Taken", null)),
+                new BookPatchItemDTO(2L, null, new BookPatchDTO("Free", null))));
+
+        Assertions.assertEquals(BookBatchItemStatus.DUPLICATE, results.get(0).status());
+        Assertions.assertEquals(BookBatchItemStatus.UPDATED, results.get(1).status());
+        Assertions.assertEquals(new BookDTO(2L, "Free", "Author", 1L), results.get(1).book());
+    }
+
+    @Test
+    void patchBooks_ShouldNotQueryDatabase_WhenAllItemsAreInvalid() {
+        List<BookBatchItemResult> results = bookBatchService.patchBooks(List.of(
+                new BookPatchItemDTO(null, null, new BookPatchDTO(null, null))));
+
+        Assertions.assertEquals(BookBatchItemStatus.INVALID, results.getFirst().status());
+        Assertions.assertEquals(2, results.getFirst().fieldErrors().size());
+
+        Mockito.verify(bookRepository, Mockito.never()).findAllForUpdateByIdIn(any());
+        Mockito.verify(bookRepository, Mockito.never()).findKeyOwners(any(), any());
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.library.unit.service;
+
+import com.example.library.config.BookChangeFeedProperties;
+import com.example.library.model.BookChangeType;
+import com.example.library.model.BookChangedEvent;
+import com.example.library.model.BookDTO;
+import com.example.library.service.BookChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class BookChangeFeedTest {
+    private SimpleMeterRegistry meterRegistry;
+    private BookChangeFeed bookChangeFeed;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookChangeFeed = new BookChangeFeed(
+                new BookChangeFeedProperties(2, Duration.ofSeconds(10), Duration.ofMinutes(1), 2), meterRegistry);
+    }
+
+    @Test
+    void subscribe_ShouldSendOnlyNewChanges_WhenNoLastEventId() throws Exception {
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(1L)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        bookChangeFeed.subscribe(null, emitter);
+
+        bookChangeFeed.onBookChanged(BookChangedEvent.created(List.of(new BookDTO(2L, "Title", "Author", 0L))));
+
+        Sent sent = emitter.next();
+        Assertions.assertEquals("created", sent.name());
+        Assertions.assertEquals(BookChangeType.CREATED, ((BookChangedEvent) sent.data()).type());
+        Assertions.assertEquals(List.of(2L), ((BookChangedEvent) sent.data()).ids());
+    }
+
+    @Test
+    void subscribe_ShouldResumeAfterLastEventId_WhenChangesAreBuffered() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        bookChangeFeed.subscribe(null, first);
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(1L)));
+        String lastEventId = first.next().id();
+
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(2L)));
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(3L)));
+        RecordingEmitter resumed = new RecordingEmitter();
+        bookChangeFeed.subscribe(lastEventId, resumed);
+
+        Assertions.assertEquals(List.of(2L), ((BookChangedEvent) resumed.next().data()).ids());
+        Assertions.assertEquals(List.of(3L), ((BookChangedEvent) resumed.next().data()).ids());
+    }
+
+    @Test
+    void subscribe_ShouldSendReset_WhenLastEventIdIsNoLongerBuffered() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        bookChangeFeed.subscribe(null, first);
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(1L)));
+        String lastEventId = first.next().id();
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(2L)));
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(3L)));
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(4L)));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        bookChangeFeed.subscribe(lastEventId, resumed);
+        bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(5L)));
+
+        Assertions.assertEquals("reset", resumed.next().name());
+        Assertions.assertEquals(List.of(5L), ((BookChangedEvent) resumed.next().data()).ids());
+    }
+
+    @Test
+    void subscribe_ShouldSendReset_WhenLastEventIdIsUnknown() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        bookChangeFeed.subscribe("42-7", emitter);
+
+        Assertions.assertEquals("reset", emitter.next().name());
+    }
+
+    @Test
+    void onBookChanged_ShouldNotWaitForSlowSubscriber_AndDropIt() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.blockSends();
+        bookChangeFeed.subscribe(null, slow);
+
+        Assertions.assertTrue(slow.sendStarted.await(5, TimeUnit.SECONDS));
+        for (long id = 1; id <= 10; id++) {
+            bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(id)));
+        }
+        slow.unblockSends();
+
+        Assertions.assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1.0, meterRegistry.get("library.books.stream.dropped").counter().count());
+    }
+
+    @Test
+    void subscribe_ShouldReject_WhenMaxSubscribersAreOpen_UntilOneLeaves() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.blockSends();
+        bookChangeFeed.subscribe(null, slow);
+        bookChangeFeed.subscribe(null, new RecordingEmitter());
+
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> bookChangeFeed.subscribe(null, new RecordingEmitter()));
+
+        Assertions.assertTrue(slow.sendStarted.await(5, TimeUnit.SECONDS));
+        for (long id = 1; id <= 10; id++) {
+            bookChangeFeed.onBookChanged(BookChangedEvent.deleted(List.of(id)));
+        }
+        slow.unblockSends();
+        Assertions.assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("library.books.stream.subscribers").gauge().value() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertDoesNotThrow(() -> bookChangeFeed.subscribe(null, new RecordingEmitter()));
+    }
+
+    private record Sent(String id, String name, Object data) {}
+
+    /**
+     * Records the events instead of writing them to a response; optionally blocks every send like a client
+     * that does not read.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+
+        void blockSends() {
+            blocked = new CountDownLatch(1);
+        }
+
+        void unblockSends() {
+            blocked.countDown();
+        }
+
+        Sent next() throws InterruptedException {
+            Sent next = sent.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(next, "no event was sent");
+            return next;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sendStarted.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            Object data = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String string) {
+                    text.append(string);
+                } else {
+                    data = part.getData();
+                }
+            }
+            String id = null;
+            String name = null;
+            for (String line : text.toString().split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                }
+            }
+            if (name != null) {
+                sent.add(new Sent(id, name, data));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
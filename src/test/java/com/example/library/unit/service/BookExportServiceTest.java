@@ -0,0 +1,64 @@
+package com.example.library.unit.service;
+
+import com.example.library.model.BookCursor;
+import com.example.library.model.BookDTO;
+import com.example.library.model.BookExportFormat;
+import com.example.library.model.BookSortKey;
+import com.example.library.repository.BookRepository;
+import com.example.library.service.BookExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.LongStream;
+
+class BookExportServiceTest {
+    private BookRepository bookRepository;
+    private BookExportService bookExportService;
+
+    @BeforeEach
+    void setup() {
+        bookRepository = Mockito.mock(BookRepository.class);
+        bookExportService = new BookExportService(bookRepository, new ObjectMapper(), Mockito.mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void exportBooks_ShouldReadChunksAfterLastExportedId_UntilChunkIsNotFull() throws Exception {
+        int chunkSize = BookExportService.CHUNK_SIZE;
+        List<BookDTO> firstChunk = LongStream.rangeClosed(1, chunkSize)
+                .mapToObj(id -> new BookDTO(id, "Title " + id, "Author", 0L))
+                .toList();
+        Mockito.when(bookRepository.findPage(null, BookSortKey.ID, Sort.Direction.ASC, chunkSize))
+                .thenReturn(firstChunk);
+        Mockito.when(bookRepository.findPage(new BookCursor(BookSortKey.ID, chunkSize, null), BookSortKey.ID, Sort.Direction.ASC, chunkSize))
+                .thenReturn(List.of(new BookDTO(chunkSize + 1L, "Last, \"quoted\"", "Author", 3L)));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bookExportService.exportBooks(BookExportFormat.CSV, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        Assertions.assertEquals(chunkSize + 2, lines.size());
+        Assertions.assertEquals("id,title,author,version", lines.getFirst());
+        Assertions.assertEquals("1,Title 1,Author,0", lines.get(1));
+        Assertions.assertEquals((chunkSize + 1) + ",\"Last, \"\"quoted\"\"\",Author,3", lines.getLast());
+        Mockito.verify(bookRepository, Mockito.times(2)).findPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    void exportBooks_ShouldWriteNothing_WhenCatalogIsEmpty() throws Exception {
+        Mockito.when(bookRepository.findPage(null, BookSortKey.ID, Sort.Direction.ASC, BookExportService.CHUNK_SIZE))
+                .thenReturn(List.of());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bookExportService.exportBooks(BookExportFormat.NDJSON, output);
+
+        Assertions.assertEquals(0, output.size());
+    }
+}
@@ -5,10 +5,13 @@ import com.example.library.repository.BookRepository;
 import com.example.library.service.BookService;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,67 +21,105 @@ import static org.mockito.ArgumentMatchers.any;
 class BookServiceTest {
     private BookService bookService;
     private BookRepository bookRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     void setup() {
         bookRepository = Mockito.mock(BookRepository.class);
-        bookService = new BookService(bookRepository);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        bookService = new BookService(bookRepository, eventPublisher);
     }
 
     @Test
-    void getAllBooks_ShouldReturnAllBooks() {
-        Book book1 = new Book();
-        book1.setId(1L);
-        book1.setTitle("Book 1");
-        book1.setAuthor("Author 1");
-        Book book2 = new Book();
-
-        book2.setId(2L);
-        book2.setTitle("Book 2");
-        book2.setAuthor("Author 2");
-
-        Mockito.when(bookRepository.findAll())
-                .thenReturn(List.of(book1, book2));
+    void getBooks_ShouldReturnPageWithNextCursor_WhenMoreBooksExist() {
+        Mockito.when(bookRepository.findPage(null, BookSortKey.ID, Sort.Direction.ASC, 3))
+                .thenReturn(List.of(
+                        new BookDTO(1L, "Book 1", "Author 1", 0L),
+                        new BookDTO(2L, "Book 2", "Author 2", 0L),
+                        new BookDTO(3L, "Book 3", "Author 3", 0L)));
+        Mockito.when(bookRepository.approximateCount()).thenReturn(3L);
+
+        BookPageDTO page = bookService.getBooks(null, BookSortKey.ID, Sort.Direction.ASC, 2);
+
+        Assertions.assertNotNull(page);
+        Assertions.assertEquals(2, page.items().size());
+        Assertions.assertEquals("Book 1", page.items().get(0).title());
+        Assertions.assertEquals("Author 2", page.items().get(1).author());
+        Assertions.assertEquals(new BookCursor(BookSortKey.ID, 2L, null), BookCursor.decode(page.nextCursor(), BookSortKey.ID));
+        Assertions.assertEquals(3L, page.approximateTotal());
+
+        Mockito.verify(bookRepository, Mockito.never()).findDtoById(any());
+        Mockito.verify(bookRepository, Mockito.never()).findAll();
+    }
 
-        List<BookDTO> bookDTOs = bookService.getAllBooks();
+    @Test
+    void getBooks_ShouldReturnLastPageWithoutCursor() {
+        BookCursor after = new BookCursor(BookSortKey.ID, 5L, null);
+        Mockito.when(bookRepository.findPage(after, BookSortKey.ID, Sort.Direction.ASC, 3))
+                .thenReturn(List.of(new BookDTO(6L, "Book 6", "Author 6", 0L)));
 
-        Assertions.assertNotNull(bookDTOs);
-        Assertions.assertEquals(2, bookDTOs.size());
+        BookPageDTO page = bookService.getBooks(after, BookSortKey.ID, Sort.Direction.ASC, 2);
 
-        BookDTO result1 = bookDTOs.get(0);
-        BookDTO result2 = bookDTOs.get(1);
+        Assertions.assertEquals(1, page.items().size());
+        Assertions.assertNull(page.nextCursor());
+    }
 
-        Assertions.assertEquals("Book 1", result1.title());
-        Assertions.assertEquals("Author 1", result1.author());
+    @Test
+    void getBooks_ShouldPutSortValueIntoCursor_WhenSortedByTitle() {
+        BookCursor after = new BookCursor(BookSortKey.TITLE, 5L, "Book 5");
+        Mockito.when(bookRepository.findPage(after, BookSortKey.TITLE, Sort.Direction.DESC, 2))
+                .thenReturn(List.of(
+                        new BookDTO(4L, "Book 4", "Author 4", 0L),
+                        new BookDTO(3L, "Book 3", "Author 3", 0L)));
+
+        BookPageDTO page = bookService.getBooks(after, BookSortKey.TITLE, Sort.Direction.DESC, 1);
+
+        Assertions.assertEquals(new BookCursor(BookSortKey.TITLE, 4L, "Book 4"),
+                BookCursor.decode(page.nextCursor(), BookSortKey.TITLE));
+        Mockito.verify(bookRepository, Mockito.never()).findDtoById(any());
+    }
 
-        Assertions.assertEquals("Book 2", result2.title());
-        Assertions.assertEquals("Author 2", result2.author());
+    @Test
+    void bookCursor_ShouldRoundTripSortValue_AndRejectOtherSortKeys() {
+        BookCursor cursor = new BookCursor(BookSortKey.AUTHOR, 7L, "Le Guin: Ursula K.");
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findAll();
+        Assertions.assertEquals(cursor, BookCursor.decode(cursor.encode(), BookSortKey.AUTHOR));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(cursor.encode(), BookSortKey.TITLE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BookCursor.decode("42", BookSortKey.ID));
     }
 
     @Test
-    void getAllBooks_ShouldReturnEmptyList() {
-        Mockito.when(bookRepository.findAll())
-                .thenReturn(List.of());
+    void searchBooks_ShouldReturnPageWithHasNext_WhenMoreResultsExist() {
+        Mockito.when(bookRepository.search("tolstoy", 3, 2L))
+                .thenReturn(List.of(
+                        new BookDTO(1L, "War and Peace", "Leo Tolstoy", 0L),
+                        new BookDTO(2L, "Anna Karenina", "Leo Tolstoy", 0L),
+                        new BookDTO(3L, "Resurrection", "Leo Tolstoy", 0L)));
+
+        BookSearchPageDTO page = bookService.searchBooks("  tolstoy ", 1, 2);
+
+        Assertions.assertEquals(2, page.items().size());
+        Assertions.assertEquals("War and Peace", page.items().get(0).title());
+        Assertions.assertEquals(1, page.page());
+        Assertions.assertEquals(2, page.size());
+        Assertions.assertTrue(page.hasNext());
+    }
 
-        List<BookDTO> result = bookService.getAllBooks();
+    @Test
+    void searchBooks_ShouldReturnLastPage_WhenNoMoreResults() {
+        Mockito.when(bookRepository.search("tolstoy", 3, 0L))
+                .thenReturn(List.of(new BookDTO(1L, "War and Peace", "Leo Tolstoy", 0L)));
 
-        Assertions.assertNotNull(result);
-        Assertions.assertTrue(result.isEmpty());
+        BookSearchPageDTO page = bookService.searchBooks("tolstoy", 0, 2);
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findAll();
+        Assertions.assertEquals(1, page.items().size());
+        Assertions.assertFalse(page.hasNext());
     }
 
     @Test
     void getBookById_ShouldReturnBook_WhenBookExists() {
-        Book book1 = new Book();
-        book1.setId(1L);
-        book1.setTitle("Book 1");
-        book1.setAuthor("Author 1");
-
-        Mockito.when(bookRepository.findById(1L))
-                .thenReturn(Optional.of(book1));
+        Mockito.when(bookRepository.findDtoById(1L))
+                .thenReturn(Optional.of(new BookDTO(1L, "Book 1", "Author 1", 0L)));
 
         BookDTO result = bookService.getBookById(1L);
 
@@ -86,26 +127,24 @@ class BookServiceTest {
         Assertions.assertEquals("Book 1", result.title());
         Assertions.assertEquals("Author 1", result.author());
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findById(1L);
+        Mockito.verify(bookRepository, Mockito.times(1)).findDtoById(1L);
     }
 
     @Test
     void getBookById_ShouldReturn404_WhenBookNotFound() {
-        Mockito.when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+        Mockito.when(bookRepository.findDtoById(99L)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(EntityNotFoundException.class, () -> bookService.getBookById(99L));
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findById(99L);
+        Mockito.verify(bookRepository, Mockito.times(1)).findDtoById(99L);
     }
 
     @Test
     void addBook_ShouldAddBook_WhenBookNotFound() {
         BookPostDTO book1 = new BookPostDTO("Book 1", "Author 1");
 
-        Mockito.when(bookRepository.findByAuthorAndTitle("Author 1", "Book 1"))
-                .thenReturn(Optional.empty());
-        Mockito.when(bookRepository.save(any()))
-                .thenReturn(new Book(1L, "Book 1", "Author 1"));
+        Mockito.when(bookRepository.insertIfAbsent("Book 1", "Author 1"))
+                .thenReturn(Optional.of(new Book(1L, "Book 1", "Author 1")));
 
         BookDTO result = bookService.addBook(book1);
 
@@ -114,20 +153,21 @@ class BookServiceTest {
         Assertions.assertEquals("Book 1", result.title());
         Assertions.assertEquals("Author 1", result.author());
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findByAuthorAndTitle("Author 1", "Book 1");
-        Mockito.verify(bookRepository, Mockito.times(1)).save(any());
+        Mockito.verify(bookRepository, Mockito.times(1)).insertIfAbsent("Book 1", "Author 1");
+        Mockito.verify(bookRepository, Mockito.never()).findByAuthorAndTitle(any(), any());
+        Mockito.verify(bookRepository, Mockito.never()).save(any());
     }
 
     @Test
     void addBook_ShouldReturn409_WhenBookAlreadyExists() {
         BookPostDTO book1 = new BookPostDTO("Book 1", "Author 1");
 
-        Mockito.when(bookRepository.findByAuthorAndTitle("Author 1", "Book 1"))
-                .thenReturn(Optional.of(new Book(1L, "Book 1", "Author 1")));
+        Mockito.when(bookRepository.insertIfAbsent("Book 1", "Author 1"))
+                .thenReturn(Optional.empty());
 
         Assertions.assertThrows(EntityExistsException.class, () -> bookService.addBook(book1));
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findByAuthorAndTitle("Author 1", "Book 1");
+        Mockito.verify(bookRepository, Mockito.times(1)).insertIfAbsent("Book 1", "Author 1");
         Mockito.verify(bookRepository, Mockito.never()).save(any());
     }
 
@@ -135,44 +175,77 @@ class BookServiceTest {
     void deleteBookById_ShouldDeleteBook_WhenBookExists() {
         Book book1 = new Book(1L, "Book 1", "Author 1");
 
-        Mockito.when(bookRepository.existsById(book1.getId()))
-                .thenReturn(true);
+        Mockito.when(bookRepository.deleteDirectlyById(book1.getId(), null))
+                .thenReturn(1);
 
-        bookService.deleteBookById(book1.getId());
+        bookService.deleteBookById(book1.getId(), null);
 
-        Mockito.verify(bookRepository, Mockito.times(1)).existsById(book1.getId());
-        Mockito.verify(bookRepository, Mockito.times(1)).deleteById(book1.getId());
+        Mockito.verify(bookRepository, Mockito.times(1)).deleteDirectlyById(book1.getId(), null);
+        Mockito.verify(bookRepository, Mockito.never()).existsById(any());
+        Mockito.verify(bookRepository, Mockito.never()).deleteById(any());
     }
 
     @Test
     void deleteBookById_ShouldReturn404_WhenBookNotFound() {
-        Mockito.when(bookRepository.existsById(1L)).thenReturn(false);
+        Mockito.when(bookRepository.deleteDirectlyById(1L, null)).thenReturn(0);
+
+        Assertions.assertThrows(EntityNotFoundException.class, () -> bookService.deleteBookById(1L, null));
+
+        Mockito.verify(bookRepository, Mockito.times(1)).deleteDirectlyById(1L, null);
+    }
+
+    @Test
+    void deleteBooksByIds_ShouldReturnDeletedCount() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+
+        Mockito.when(bookRepository.deleteDirectlyByIdIn(ids)).thenReturn(List.of(1L, 3L));
 
-        Assertions.assertThrows(EntityNotFoundException.class, () -> bookService.deleteBookById(1L));
+        BookDeleteResultDTO result = bookService.deleteBooksByIds(ids);
 
-        Mockito.verify(bookRepository, Mockito.times(1)).existsById(1L);
-        Mockito.verify(bookRepository, Mockito.never()).deleteById(1L);
+        Assertions.assertEquals(2, result.deleted());
+        Mockito.verify(bookRepository, Mockito.times(1)).deleteDirectlyByIdIn(ids);
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(BookChangedEvent.deleted(List.of(1L, 3L)));
+    }
+
+    @Test
+    void deleteBooksByIds_ShouldNotPublishEvent_WhenNothingDeleted() {
+        List<Long> ids = List.of(1L, 2L);
+
+        Mockito.when(bookRepository.deleteDirectlyByIdIn(ids)).thenReturn(List.of());
+
+        BookDeleteResultDTO result = bookService.deleteBooksByIds(ids);
+
+        Assertions.assertEquals(0, result.deleted());
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteBookById_ShouldReturn412_WhenVersionDoesNotMatch() {
+        Mockito.when(bookRepository.deleteDirectlyById(1L, new Long[]{2L})).thenReturn(0);
+        Mockito.when(bookRepository.existsById(1L)).thenReturn(true);
+
+        Assertions.assertThrows(OptimisticLockException.class, () -> bookService.deleteBookById(1L, List.of(2L)));
+
+        Mockito.verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void updateBookById_ShouldUpdateBook_WhenBookExists() {
-        Book oldBook = new Book(1L, "Book 1", "Author 1");
         BookPutDTO newBook = new BookPutDTO("Book 2", "Author 2");
 
-        Mockito.when(bookRepository.findById(1L))
-                .thenReturn(Optional.of(oldBook));
-        Mockito.when(bookRepository.save(oldBook))
-                .thenReturn(oldBook);
+        Mockito.when(bookRepository.updateTitleAndAuthor(1L, "Book 2", "Author 2", null))
+                .thenReturn(Optional.of(new Book(1L, "Book 2", "Author 2")));
 
-        BookDTO result = bookService.updateBook(newBook, 1L);
+        BookDTO result = bookService.updateBook(newBook, 1L, null);
 
         Assertions.assertNotNull(result);
         Assertions.assertEquals(1L, result.id());
         Assertions.assertEquals("Book 2", result.title());
         Assertions.assertEquals("Author 2", result.author());
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findById(1L);
-        Mockito.verify(bookRepository, Mockito.times(1)).save(oldBook);
+        Mockito.verify(bookRepository, Mockito.times(1)).updateTitleAndAuthor(1L, "Book 2", "Author 2", null);
+        Mockito.verify(bookRepository, Mockito.never()).findById(any());
+        Mockito.verify(bookRepository, Mockito.never()).save(any());
     }
 
     @Test
@@ -180,72 +253,104 @@ class BookServiceTest {
         Long ID = 1L;
         BookPutDTO newBook = new BookPutDTO("Book 1", "Author 1");
 
-        Mockito.when(bookRepository.findById(1L))
+        Mockito.when(bookRepository.updateTitleAndAuthor(ID, "Book 1", "Author 1", null))
                 .thenReturn(Optional.empty());
 
-        Assertions.assertThrows(EntityNotFoundException.class, () -> bookService.updateBook(newBook, ID));
+        Assertions.assertThrows(EntityNotFoundException.class, () -> bookService.updateBook(newBook, ID, null));
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findById(ID);
+        Mockito.verify(bookRepository, Mockito.times(1)).updateTitleAndAuthor(ID, "Book 1", "Author 1", null);
+        Mockito.verify(bookRepository, Mockito.never()).existsById(any());
         Mockito.verify(bookRepository, Mockito.never()).save(any());
     }
 
+    @Test
+    void updateBookById_ShouldPublishEventWithNewVersion_WhenVersionMatches() {
+        BookPutDTO newBook = new BookPutDTO("Book 2", "Author 2");
+
+        Mockito.when(bookRepository.updateTitleAndAuthor(1L, "Book 2", "Author 2", new Long[]{3L}))
+                .thenReturn(Optional.of(new Book(1L, "Book 2", "Author 2", 4L)));
+
+        BookDTO result = bookService.updateBook(newBook, 1L, List.of(3L));
+
+        Assertions.assertEquals(new BookDTO(1L, "Book 2", "Author 2", 4L), result);
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(BookChangedEvent.updated(result));
+    }
+
+    @Test
+    void updateBookById_ShouldReturn412_WhenVersionDoesNotMatch() {
+        BookPutDTO newBook = new BookPutDTO("Book 2", "Author 2");
+
+        Mockito.when(bookRepository.updateTitleAndAuthor(1L, "Book 2", "Author 2", new Long[]{3L}))
+                .thenReturn(Optional.empty());
+        Mockito.when(bookRepository.existsById(1L)).thenReturn(true);
+
+        Assertions.assertThrows(OptimisticLockException.class, () -> bookService.updateBook(newBook, 1L, List.of(3L)));
+
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void patchBookById_ShouldPatchBook_WhenOneFieldIsBlank() {
         BookPatchDTO bookPatchDTO = new BookPatchDTO("Book 2", "");
         Long oldBookId = 1L;
-        Book oldBook =  new Book(oldBookId, "Book 1", "Author 1");
 
-        Mockito.when(bookRepository.findById(oldBookId))
-                .thenReturn(Optional.of(oldBook));
-        Mockito.when(bookRepository.save(oldBook))
-                .thenReturn(new Book(oldBookId, bookPatchDTO.title(), oldBook.getAuthor()));
+        Mockito.when(bookRepository.updateTitle(oldBookId, bookPatchDTO.title(), null))
+                .thenReturn(Optional.of(new Book(oldBookId, bookPatchDTO.title(), "Author 1")));
 
-        BookDTO result = bookService.patchBook(bookPatchDTO, oldBookId);
+        BookDTO result = bookService.patchBook(bookPatchDTO, oldBookId, null);
         Assertions.assertNotNull(result);
 
         Assertions.assertEquals(oldBookId, result.id());
         Assertions.assertEquals(bookPatchDTO.title(), result.title());
         Assertions.assertEquals("Author 1", result.author());
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findById(oldBookId);
-        Mockito.verify(bookRepository, Mockito.times(1)).save(oldBook);
+        Mockito.verify(bookRepository, Mockito.times(1)).updateTitle(oldBookId, bookPatchDTO.title(), null);
+        Mockito.verify(bookRepository, Mockito.never()).updateAuthor(any(), any(), any());
+        Mockito.verify(bookRepository, Mockito.never()).updateTitleAndAuthor(any(), any(), any(), any());
     }
 
     @Test
     void patchBookById_ShouldPatchBook_WhenOneFieldIsNull() {
         BookPatchDTO bookPatchDTO = new BookPatchDTO(null, "Title 2");
         Long oldBookId = 1L;
-        Book oldBook =  new Book(oldBookId, "Book 1", "Author 1");
 
-        Mockito.when(bookRepository.findById(oldBookId))
-                .thenReturn(Optional.of(oldBook));
-        Mockito.when(bookRepository.save(oldBook))
-                .thenReturn(oldBook);
+        Mockito.when(bookRepository.updateAuthor(oldBookId, bookPatchDTO.author(), null))
+                .thenReturn(Optional.of(new Book(oldBookId, "Book 1", bookPatchDTO.author())));
 
-        BookDTO result = bookService.patchBook(bookPatchDTO, oldBookId);
+        BookDTO result = bookService.patchBook(bookPatchDTO, oldBookId, null);
 
         Assertions.assertNotNull(result);
         Assertions.assertEquals(oldBookId, result.id());
         Assertions.assertNotEquals(bookPatchDTO.title(), result.title());
         Assertions.assertEquals(bookPatchDTO.author(), result.author());
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findById(oldBookId);
-        Mockito.verify(bookRepository, Mockito.times(1)).save(oldBook);
+        Mockito.verify(bookRepository, Mockito.times(1)).updateAuthor(oldBookId, bookPatchDTO.author(), null);
+        Mockito.verify(bookRepository, Mockito.never()).updateTitle(any(), any(), any());
+        Mockito.verify(bookRepository, Mockito.never()).updateTitleAndAuthor(any(), any(), any(), any());
+    }
+
+    @Test
+    void patchBookById_ShouldPatchBothFields_WhenBothArePresent() {
+        BookPatchDTO bookPatchDTO = new BookPatchDTO("Book 2", "Author 2");
+        Long oldBookId = 1L;
+
+        Mockito.when(bookRepository.updateTitleAndAuthor(oldBookId, "Book 2", "Author 2", null))
+                .thenReturn(Optional.of(new Book(oldBookId, "Book 2", "Author 2")));
+
+        BookDTO result = bookService.patchBook(bookPatchDTO, oldBookId, null);
+
+        Assertions.assertEquals(new BookDTO(oldBookId, "Book 2", "Author 2", null), result);
+        Mockito.verify(bookRepository, Mockito.times(1)).updateTitleAndAuthor(oldBookId, "Book 2", "Author 2", null);
     }
 
     @Test
     void patchBookById_ShouldReturn400_WhenBothFieldsAreNull() {
         BookPatchDTO bookPatchDTO = new BookPatchDTO(null, "");
         Long oldBookId = 1L;
-        Book oldBook =  new Book(oldBookId, "Book 1", "Author 1");
-
-        Mockito.when(bookRepository.findById(oldBookId))
-                .thenReturn(Optional.of(oldBook));
 
-        Assertions.assertThrows(IllegalArgumentException.class, () -> bookService.patchBook(bookPatchDTO, oldBookId));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bookService.patchBook(bookPatchDTO, oldBookId, null));
 
-        Mockito.verify(bookRepository, Mockito.never()).findById(oldBookId);
-        Mockito.verify(bookRepository, Mockito.never()).save(oldBook);
+        Mockito.verifyNoInteractions(bookRepository);
     }
 
     @Test
@@ -253,12 +358,12 @@ class BookServiceTest {
         BookPatchDTO bookPatchDTO = new BookPatchDTO("Book 2", null);
         Long oldBookId = 1L;
 
-        Mockito.when(bookRepository.findById(oldBookId))
-                .thenThrow(new EntityNotFoundException());
+        Mockito.when(bookRepository.updateTitle(oldBookId, "Book 2", null))
+                .thenReturn(Optional.empty());
 
-        Assertions.assertThrows(EntityNotFoundException.class, () -> bookService.patchBook(bookPatchDTO, oldBookId));
+        Assertions.assertThrows(EntityNotFoundException.class, () -> bookService.patchBook(bookPatchDTO, oldBookId, null));
 
-        Mockito.verify(bookRepository, Mockito.times(1)).findById(oldBookId);
+        Mockito.verify(bookRepository, Mockito.times(1)).updateTitle(oldBookId, "Book 2", null);
         Mockito.verify(bookRepository, Mockito.never()).save(any());
     }
 }
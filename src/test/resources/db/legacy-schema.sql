@@ -0,0 +1,18 @@
+-- The schema that ddl-auto=update created from the original Book mapping, before Flyway managed it: an AUTO id
+-- backed by book_seq, no version column and a unique constraint on the title alone, named by Hibernate.
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE book
+(
+    book_id     bigint       NOT NULL,
+    book_author varchar(255) NOT NULL,
+    book_title  varchar(255) NOT NULL,
+    PRIMARY KEY (book_id)
+);
+
+ALTER TABLE IF EXISTS book ADD CONSTRAINT ukdfmjw3yts4j4de8dcbmv0a5ac UNIQUE (book_title);
+
+INSERT INTO book (book_id, book_author, book_title)
+VALUES (1, 'Leo Tolstoy', 'War and Peace'),
+       (2, 'Fyodor Dostoevsky', 'Crime and Punishment');
+SELECT setval('book_seq', 51);